@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+final class BitmapRenderer implements Renderer {
+
+    private final CanvasRenderer mSource = new CanvasRenderer();
+    private final Canvas mCanvas = new Canvas();
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private Bitmap mPlane;
+    private float mPlaneHue;
+
+    private Bitmap mStrip;
+    private int mStripOrientation;
+
+    @Override
+    public void drawSaturationValue(Canvas canvas, float left, float top, float right, float bottom,
+                                    float hue) {
+        int width = Math.round(right - left);
+        int height = Math.round(bottom - top);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (mPlane == null || mPlane.getWidth() != width || mPlane.getHeight() != height) {
+            if (mPlane != null) {
+                mPlane.recycle();
+            }
+            mPlane = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mPlaneHue = Float.NaN;
+        }
+        if (mPlaneHue != hue) {
+            mCanvas.setBitmap(mPlane);
+            mSource.drawSaturationValue(mCanvas, 0, 0, width, height, hue);
+            mPlaneHue = hue;
+        }
+        canvas.drawBitmap(mPlane, left, top, mPaint);
+    }
+
+    @Override
+    public void drawHue(Canvas canvas, float left, float top, float right, float bottom,
+                        int orientation) {
+        int width = Math.round(right - left);
+        int height = Math.round(bottom - top);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (mStrip == null || mStrip.getWidth() != width || mStrip.getHeight() != height ||
+                mStripOrientation != orientation) {
+            if (mStrip != null) {
+                mStrip.recycle();
+            }
+            mStrip = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mCanvas.setBitmap(mStrip);
+            mSource.drawHue(mCanvas, 0, 0, width, height, orientation);
+            mStripOrientation = orientation;
+        }
+        canvas.drawBitmap(mStrip, left, top, mPaint);
+    }
+
+    @Override
+    public void release() {
+        if (mPlane != null) {
+            mPlane.recycle();
+            mPlane = null;
+        }
+        if (mStrip != null) {
+            mStrip.recycle();
+            mStrip = null;
+        }
+        mSource.release();
+    }
+
+}
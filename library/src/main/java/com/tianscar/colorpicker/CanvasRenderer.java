@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+final class CanvasRenderer implements Renderer {
+
+    static final int[] HUE_COLORS;
+
+    static {
+        int colorCount = 12;
+        int colorAngleStep = 360 / colorCount;
+        HUE_COLORS = new int[colorCount + 1];
+        for (int i = 0; i < HUE_COLORS.length; i++) {
+            float hue = 360 - (i * colorAngleStep) % 360;
+            if (hue == 360) hue = 359;
+            HUE_COLORS[i] = PackedColor.HSVToColor(hue, 1, 1);
+        }
+    }
+
+    private final Paint mHueFillPaint;
+    private final Paint mSaturationPaint;
+    private final Paint mValuePaint;
+    private final Paint mHuePaint;
+
+    private float mSaturationLeft, mSaturationRight;
+    private float mValueTop, mValueBottom;
+    private float mHueLeft, mHueTop, mHueRight, mHueBottom;
+    private int mHueOrientation;
+
+    CanvasRenderer() {
+        mHueFillPaint = new Paint();
+        mSaturationPaint = new Paint();
+        mValuePaint = new Paint();
+        mHuePaint = new Paint();
+    }
+
+    // Pure hue, then white fading out to the right, then black fading in to the bottom:
+    // v * ((1 - s) * white + s * hue), same as multiplying the two gradients. Only the fill
+    // color depends on the hue, so a hue change does not allocate a new shader.
+    @Override
+    public void drawSaturationValue(Canvas canvas, float left, float top, float right, float bottom,
+                                    float hue) {
+        if (mSaturationPaint.getShader() == null || mSaturationLeft != left ||
+                mSaturationRight != right) {
+            mSaturationPaint.setShader(new LinearGradient(left, 0, right, 0,
+                    0xFFFFFFFF, 0x00FFFFFF, Shader.TileMode.CLAMP));
+            mSaturationLeft = left;
+            mSaturationRight = right;
+        }
+        if (mValuePaint.getShader() == null || mValueTop != top || mValueBottom != bottom) {
+            mValuePaint.setShader(new LinearGradient(0, top, 0, bottom,
+                    0x00000000, 0xFF000000, Shader.TileMode.CLAMP));
+            mValueTop = top;
+            mValueBottom = bottom;
+        }
+        mHueFillPaint.setColor(PackedColor.HSVToColor(hue, 1, 1));
+        canvas.drawRect(left, top, right, bottom, mHueFillPaint);
+        canvas.drawRect(left, top, right, bottom, mSaturationPaint);
+        canvas.drawRect(left, top, right, bottom, mValuePaint);
+    }
+
+    @Override
+    public void drawHue(Canvas canvas, float left, float top, float right, float bottom,
+                        int orientation) {
+        if (mHuePaint.getShader() == null || mHueLeft != left || mHueTop != top ||
+                mHueRight != right || mHueBottom != bottom || mHueOrientation != orientation) {
+            switch (orientation) {
+                case RectColorPicker.HueRect.VERTICAL: default:
+                    mHuePaint.setShader(new LinearGradient(0, bottom, 0, top,
+                            HUE_COLORS, null, Shader.TileMode.CLAMP));
+                    break;
+                case RectColorPicker.HueRect.HORIZONTAL:
+                    mHuePaint.setShader(new LinearGradient(right, 0, left, 0,
+                            HUE_COLORS, null, Shader.TileMode.CLAMP));
+                    break;
+            }
+            mHueLeft = left;
+            mHueTop = top;
+            mHueRight = right;
+            mHueBottom = bottom;
+            mHueOrientation = orientation;
+        }
+        canvas.drawRect(left, top, right, bottom, mHuePaint);
+    }
+
+    @Override
+    public void release() {
+        mSaturationPaint.setShader(null);
+        mValuePaint.setShader(null);
+        mHuePaint.setShader(null);
+    }
+
+}
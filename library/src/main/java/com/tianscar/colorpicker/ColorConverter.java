@@ -0,0 +1,348 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Bulk ARGB/HSV conversion over separate hue, saturation and value arrays, with the same
+ * conventions as {@link android.graphics.Color#colorToHSV(int, float[])} and
+ * {@link android.graphics.Color#HSVToColor(float[])} (and so as {@link RectColorPicker}).
+ * The overloads without an alpha array drop alpha on the way in and write opaque colors on the
+ * way out, like {@link android.graphics.Color#HSVToColor(float[])}; pass an alpha array (0..255,
+ * indexed like the HSV arrays) to carry it through, like
+ * {@link android.graphics.Color#HSVToColor(int, float[])}.
+ * The parallel variants split arrays longer than {@link #PARALLEL_THRESHOLD} across cores.
+ */
+public final class ColorConverter {
+
+    private ColorConverter(){}
+
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private static final float GRAY_THRESHOLD = 1.0f / 4096;
+
+    public static void colorsToHSV(@NonNull int[] colors, @NonNull float[] hue,
+                                   @NonNull float[] saturation, @NonNull float[] value) {
+        colorsToHSV(colors, 0, hue, saturation, value, 0, colors.length);
+    }
+
+    public static void colorsToHSV(@NonNull int[] colors, int colorOffset,
+                                   @NonNull float[] hue, @NonNull float[] saturation,
+                                   @NonNull float[] value, int hsvOffset, int count) {
+        checkRange(colors.length, colorOffset, count);
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        colorsToHSVRange(colors, colorOffset, null, hue, saturation, value, hsvOffset, count);
+    }
+
+    public static void colorsToHSV(@NonNull int[] colors, @NonNull int[] alpha,
+                                   @NonNull float[] hue, @NonNull float[] saturation,
+                                   @NonNull float[] value) {
+        colorsToHSV(colors, 0, alpha, hue, saturation, value, 0, colors.length);
+    }
+
+    public static void colorsToHSV(@NonNull int[] colors, int colorOffset,
+                                   @NonNull int[] alpha, @NonNull float[] hue,
+                                   @NonNull float[] saturation, @NonNull float[] value,
+                                   int hsvOffset, int count) {
+        checkRange(colors.length, colorOffset, count);
+        checkRange(alpha.length, hsvOffset, count);
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        colorsToHSVRange(colors, colorOffset, alpha, hue, saturation, value, hsvOffset, count);
+    }
+
+    public static void parallelColorsToHSV(@NonNull int[] colors, @NonNull float[] hue,
+                                           @NonNull float[] saturation, @NonNull float[] value) {
+        parallelColorsToHSV(colors, 0, hue, saturation, value, 0, colors.length);
+    }
+
+    public static void parallelColorsToHSV(@NonNull final int[] colors, final int colorOffset,
+                                           @NonNull final float[] hue,
+                                           @NonNull final float[] saturation,
+                                           @NonNull final float[] value, final int hsvOffset,
+                                           int count) {
+        checkRange(colors.length, colorOffset, count);
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        runParallel(count, new Chunk() {
+            @Override
+            public void run(int start, int length) {
+                colorsToHSVRange(colors, colorOffset + start, null, hue, saturation, value,
+                        hsvOffset + start, length);
+            }
+        });
+    }
+
+    public static void parallelColorsToHSV(@NonNull int[] colors, @NonNull int[] alpha,
+                                           @NonNull float[] hue, @NonNull float[] saturation,
+                                           @NonNull float[] value) {
+        parallelColorsToHSV(colors, 0, alpha, hue, saturation, value, 0, colors.length);
+    }
+
+    public static void parallelColorsToHSV(@NonNull final int[] colors, final int colorOffset,
+                                           @NonNull final int[] alpha,
+                                           @NonNull final float[] hue,
+                                           @NonNull final float[] saturation,
+                                           @NonNull final float[] value, final int hsvOffset,
+                                           int count) {
+        checkRange(colors.length, colorOffset, count);
+        checkRange(alpha.length, hsvOffset, count);
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        runParallel(count, new Chunk() {
+            @Override
+            public void run(int start, int length) {
+                colorsToHSVRange(colors, colorOffset + start, alpha, hue, saturation, value,
+                        hsvOffset + start, length);
+            }
+        });
+    }
+
+    public static void HSVToColors(@NonNull float[] hue, @NonNull float[] saturation,
+                                   @NonNull float[] value, @NonNull int[] colors) {
+        HSVToColors(hue, saturation, value, 0, colors, 0, colors.length);
+    }
+
+    public static void HSVToColors(@NonNull float[] hue, @NonNull float[] saturation,
+                                   @NonNull float[] value, int hsvOffset,
+                                   @NonNull int[] colors, int colorOffset, int count) {
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        checkRange(colors.length, colorOffset, count);
+        HSVToColorsRange(null, hue, saturation, value, hsvOffset, colors, colorOffset, count);
+    }
+
+    public static void HSVToColors(@NonNull int[] alpha, @NonNull float[] hue,
+                                   @NonNull float[] saturation, @NonNull float[] value,
+                                   @NonNull int[] colors) {
+        HSVToColors(alpha, hue, saturation, value, 0, colors, 0, colors.length);
+    }
+
+    public static void HSVToColors(@NonNull int[] alpha, @NonNull float[] hue,
+                                   @NonNull float[] saturation, @NonNull float[] value,
+                                   int hsvOffset, @NonNull int[] colors, int colorOffset,
+                                   int count) {
+        checkRange(alpha.length, hsvOffset, count);
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        checkRange(colors.length, colorOffset, count);
+        HSVToColorsRange(alpha, hue, saturation, value, hsvOffset, colors, colorOffset, count);
+    }
+
+    public static void parallelHSVToColors(@NonNull float[] hue, @NonNull float[] saturation,
+                                           @NonNull float[] value, @NonNull int[] colors) {
+        parallelHSVToColors(hue, saturation, value, 0, colors, 0, colors.length);
+    }
+
+    public static void parallelHSVToColors(@NonNull final float[] hue,
+                                           @NonNull final float[] saturation,
+                                           @NonNull final float[] value, final int hsvOffset,
+                                           @NonNull final int[] colors, final int colorOffset,
+                                           int count) {
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        checkRange(colors.length, colorOffset, count);
+        runParallel(count, new Chunk() {
+            @Override
+            public void run(int start, int length) {
+                HSVToColorsRange(null, hue, saturation, value, hsvOffset + start, colors,
+                        colorOffset + start, length);
+            }
+        });
+    }
+
+    public static void parallelHSVToColors(@NonNull int[] alpha, @NonNull float[] hue,
+                                           @NonNull float[] saturation, @NonNull float[] value,
+                                           @NonNull int[] colors) {
+        parallelHSVToColors(alpha, hue, saturation, value, 0, colors, 0, colors.length);
+    }
+
+    public static void parallelHSVToColors(@NonNull final int[] alpha,
+                                           @NonNull final float[] hue,
+                                           @NonNull final float[] saturation,
+                                           @NonNull final float[] value, final int hsvOffset,
+                                           @NonNull final int[] colors, final int colorOffset,
+                                           int count) {
+        checkRange(alpha.length, hsvOffset, count);
+        checkRange(hue.length, hsvOffset, count);
+        checkRange(saturation.length, hsvOffset, count);
+        checkRange(value.length, hsvOffset, count);
+        checkRange(colors.length, colorOffset, count);
+        runParallel(count, new Chunk() {
+            @Override
+            public void run(int start, int length) {
+                HSVToColorsRange(alpha, hue, saturation, value, hsvOffset + start, colors,
+                        colorOffset + start, length);
+            }
+        });
+    }
+
+    private static void colorsToHSVRange(int[] colors, int colorOffset, int[] alpha,
+                                         float[] hue, float[] saturation, float[] value,
+                                         int hsvOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            int color = colors[colorOffset + i];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+            int max = Math.max(r, Math.max(g, b));
+            int min = Math.min(r, Math.min(g, b));
+            int delta = max - min;
+            float h = r == max ? (float) (g - b) / delta :
+                    g == max ? 2 + (float) (b - r) / delta : 4 + (float) (r - g) / delta;
+            h = delta == 0 ? 0 : h * 60;
+            hue[hsvOffset + i] = h < 0 ? h + 360 : h;
+            saturation[hsvOffset + i] = delta == 0 ? 0 : (float) delta / max;
+            value[hsvOffset + i] = max / 255f;
+        }
+        if (alpha != null) {
+            for (int i = 0; i < count; i++) {
+                alpha[hsvOffset + i] = colors[colorOffset + i] >>> 24;
+            }
+        }
+    }
+
+    private static void HSVToColorsRange(int[] alpha, float[] hue, float[] saturation,
+                                         float[] value, int hsvOffset, int[] colors,
+                                         int colorOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            float h = hue[hsvOffset + i];
+            float s = Math.min(Math.max(saturation[hsvOffset + i], 0), 1);
+            float v = Math.min(Math.max(value[hsvOffset + i], 0), 1);
+            float hx = (h < 0 || h >= 360) ? 0 : h / 60;
+            int w = (int) hx;
+            float f = hx - w;
+            int vByte = (int) (v * 255 + 0.5f);
+            int p = (int) ((1 - s) * v * 255 + 0.5f);
+            int q = (int) ((1 - s * f) * v * 255 + 0.5f);
+            int t = (int) ((1 - s * (1 - f)) * v * 255 + 0.5f);
+            boolean gray = s <= GRAY_THRESHOLD;
+            int r = gray || w == 0 || w == 5 ? vByte : w == 1 ? q : w == 4 ? t : p;
+            int g = gray || w == 1 || w == 2 ? vByte : w == 0 ? t : w == 3 ? q : p;
+            int b = gray || w == 3 || w == 4 ? vByte : w == 2 ? t : w == 5 ? q : p;
+            colors[colorOffset + i] = 0xFF000000 | r << 16 | g << 8 | b;
+        }
+        if (alpha != null) {
+            for (int i = 0; i < count; i++) {
+                int a = Math.min(Math.max(alpha[hsvOffset + i], 0), 0xFF);
+                colors[colorOffset + i] = a << 24 | (colors[colorOffset + i] & 0x00FFFFFF);
+            }
+        }
+    }
+
+    private static void checkRange(int arrayLength, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > arrayLength - count) {
+            throw new ArrayIndexOutOfBoundsException("length=" + arrayLength + "; offset=" +
+                    offset + "; count=" + count);
+        }
+    }
+
+    private interface Chunk {
+        void run(int start, int length);
+    }
+
+    private static final class Pool {
+
+        static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+                Math.max(PARALLELISM - 1, 1), new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "ColorConverter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    }
+
+    private static void runParallel(int count, final Chunk chunk) {
+        if (count < PARALLEL_THRESHOLD || Pool.PARALLELISM < 2) {
+            chunk.run(0, count);
+            return;
+        }
+        int chunkCount = Pool.PARALLELISM;
+        int chunkLength = (count + chunkCount - 1) / chunkCount;
+        final CountDownLatch latch = new CountDownLatch(chunkCount - 1);
+        final Throwable[] failure = new Throwable[1];
+        for (int i = 1; i < chunkCount; i++) {
+            final int start = i * chunkLength;
+            final int length = Math.max(Math.min(chunkLength, count - start), 0);
+            Pool.EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        chunk.run(start, length);
+                    }
+                    catch (Throwable e) {
+                        synchronized (failure) {
+                            failure[0] = e;
+                        }
+                    }
+                    finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        chunk.run(0, Math.min(chunkLength, count));
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (failure) {
+            if (failure[0] != null) {
+                throw new RuntimeException(failure[0]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+final class ColorMath {
+
+    private ColorMath(){}
+
+    static final float[] SRGB_TO_LINEAR = new float[256];
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+        }
+    }
+
+    private static final double WHITE_X = 0.95047;
+    private static final double WHITE_Y = 1.0;
+    private static final double WHITE_Z = 1.08883;
+
+    static float luminance(int color) {
+        return 0.2126f * SRGB_TO_LINEAR[(color >> 16) & 0xFF] +
+                0.7152f * SRGB_TO_LINEAR[(color >> 8) & 0xFF] +
+                0.0722f * SRGB_TO_LINEAR[color & 0xFF];
+    }
+
+    static float contrastRatio(float luminance1, float luminance2) {
+        float lighter = Math.max(luminance1, luminance2);
+        float darker = Math.min(luminance1, luminance2);
+        return (lighter + 0.05f) / (darker + 0.05f);
+    }
+
+    // Source-over in encoded sRGB, as the framework composites a translucent color on screen.
+    static int blend(int foreground, int background) {
+        int alpha = foreground >>> 24;
+        if (alpha == 0xFF) {
+            return foreground;
+        }
+        int inverse = 0xFF - alpha;
+        int r = (((foreground >> 16) & 0xFF) * alpha + ((background >> 16) & 0xFF) * inverse + 127) / 255;
+        int g = (((foreground >> 8) & 0xFF) * alpha + ((background >> 8) & 0xFF) * inverse + 127) / 255;
+        int b = ((foreground & 0xFF) * alpha + (background & 0xFF) * inverse + 127) / 255;
+        return 0xFF000000 | r << 16 | g << 8 | b;
+    }
+
+    static void colorToLab(int color, float[] lab, int offset) {
+        double r = SRGB_TO_LINEAR[(color >> 16) & 0xFF];
+        double g = SRGB_TO_LINEAR[(color >> 8) & 0xFF];
+        double b = SRGB_TO_LINEAR[color & 0xFF];
+        double fx = labF((0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / WHITE_X);
+        double fy = labF((0.2126729 * r + 0.7151522 * g + 0.0721750 * b) / WHITE_Y);
+        double fz = labF((0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / WHITE_Z);
+        lab[offset] = (float) (116 * fy - 16);
+        lab[offset + 1] = (float) (500 * (fx - fy));
+        lab[offset + 2] = (float) (200 * (fy - fz));
+    }
+
+    private static double labF(double t) {
+        return t > 216.0 / 24389 ? Math.cbrt(t) : (24389.0 / 27 * t + 16) / 116;
+    }
+
+    static void colorToOklab(int color, float[] lab, int offset) {
+        float r = SRGB_TO_LINEAR[(color >> 16) & 0xFF];
+        float g = SRGB_TO_LINEAR[(color >> 8) & 0xFF];
+        float b = SRGB_TO_LINEAR[color & 0xFF];
+        double l = Math.cbrt(0.4122214708 * r + 0.5363325363 * g + 0.0514459929 * b);
+        double m = Math.cbrt(0.2119034982 * r + 0.6806995451 * g + 0.1073969566 * b);
+        double s = Math.cbrt(0.0883024619 * r + 0.2817188376 * g + 0.6299787005 * b);
+        lab[offset] = (float) (0.2104542553 * l + 0.7936177850 * m - 0.0040720468 * s);
+        lab[offset + 1] = (float) (1.9779984951 * l - 2.4285922050 * m + 0.4505937099 * s);
+        lab[offset + 2] = (float) (0.0259040371 * l + 0.7827717662 * m - 0.8086757660 * s);
+    }
+
+    static void oklabToLinear(float lightness, float a, float b, float[] rgb, int offset) {
+        double l = lightness + 0.3963377774 * a + 0.2158037573 * b;
+        double m = lightness - 0.1055613458 * a - 0.0638541728 * b;
+        double s = lightness - 0.0894841775 * a - 1.2914855480 * b;
+        l = l * l * l;
+        m = m * m * m;
+        s = s * s * s;
+        rgb[offset] = (float) (4.0767416621 * l - 3.3077115913 * m + 0.2309699292 * s);
+        rgb[offset + 1] = (float) (-1.2684380046 * l + 2.6097574011 * m - 0.3413193965 * s);
+        rgb[offset + 2] = (float) (-0.0041960863 * l - 0.7034186147 * m + 1.7076147010 * s);
+    }
+
+    static int linearToSrgb(float linear) {
+        if (linear <= 0) {
+            return 0;
+        }
+        if (linear >= 1) {
+            return 0xFF;
+        }
+        double c = linear <= 0.0031308 ? linear * 12.92 : 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+        return (int) (c * 255 + 0.5);
+    }
+
+    static float deltaE2000(float l1, float a1, float b1, float l2, float a2, float b2) {
+        double c1 = Math.sqrt(a1 * a1 + b1 * b1);
+        double c2 = Math.sqrt(a2 * a2 + b2 * b2);
+        double meanC7 = Math.pow((c1 + c2) / 2, 7);
+        double g = 0.5 * (1 - Math.sqrt(meanC7 / (meanC7 + 6103515625.0)));
+        double a1p = a1 * (1 + g);
+        double a2p = a2 * (1 + g);
+        double c1p = Math.sqrt(a1p * a1p + b1 * b1);
+        double c2p = Math.sqrt(a2p * a2p + b2 * b2);
+        double h1p = hueAngle(a1p, b1);
+        double h2p = hueAngle(a2p, b2);
+
+        double deltaLp = l2 - l1;
+        double deltaCp = c2p - c1p;
+        double deltahp;
+        if (c1p * c2p == 0) {
+            deltahp = 0;
+        }
+        else if (Math.abs(h2p - h1p) <= 180) {
+            deltahp = h2p - h1p;
+        }
+        else if (h2p - h1p > 180) {
+            deltahp = h2p - h1p - 360;
+        }
+        else {
+            deltahp = h2p - h1p + 360;
+        }
+        double deltaHp = 2 * Math.sqrt(c1p * c2p) * Math.sin(Math.toRadians(deltahp / 2));
+
+        double meanLp = (l1 + l2) / 2.0;
+        double meanCp = (c1p + c2p) / 2;
+        double meanhp;
+        if (c1p * c2p == 0) {
+            meanhp = h1p + h2p;
+        }
+        else if (Math.abs(h1p - h2p) <= 180) {
+            meanhp = (h1p + h2p) / 2;
+        }
+        else if (h1p + h2p < 360) {
+            meanhp = (h1p + h2p + 360) / 2;
+        }
+        else {
+            meanhp = (h1p + h2p - 360) / 2;
+        }
+
+        double t = 1 - 0.17 * Math.cos(Math.toRadians(meanhp - 30)) +
+                0.24 * Math.cos(Math.toRadians(2 * meanhp)) +
+                0.32 * Math.cos(Math.toRadians(3 * meanhp + 6)) -
+                0.20 * Math.cos(Math.toRadians(4 * meanhp - 63));
+        double deltaTheta = 30 * Math.exp(-((meanhp - 275) / 25) * ((meanhp - 275) / 25));
+        double meanCp7 = Math.pow(meanCp, 7);
+        double rc = 2 * Math.sqrt(meanCp7 / (meanCp7 + 6103515625.0));
+        double meanLp50 = (meanLp - 50) * (meanLp - 50);
+        double sl = 1 + 0.015 * meanLp50 / Math.sqrt(20 + meanLp50);
+        double sc = 1 + 0.045 * meanCp;
+        double sh = 1 + 0.015 * meanCp * t;
+        double rt = -Math.sin(Math.toRadians(2 * deltaTheta)) * rc;
+
+        double lTerm = deltaLp / sl;
+        double cTerm = deltaCp / sc;
+        double hTerm = deltaHp / sh;
+        return (float) Math.sqrt(lTerm * lTerm + cTerm * cTerm + hTerm * hTerm + rt * cTerm * hTerm);
+    }
+
+    private static double hueAngle(double a, double b) {
+        if (a == 0 && b == 0) {
+            return 0;
+        }
+        double h = Math.toDegrees(Math.atan2(b, a));
+        return h < 0 ? h + 360 : h;
+    }
+
+}
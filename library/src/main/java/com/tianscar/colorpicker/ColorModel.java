@@ -0,0 +1,267 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One packed color shared by several {@link RectColorPicker}s. Each binding may carry a
+ * {@link Transform}, e.g. a "hover" picker showing the model at +10% value. Changes are
+ * fanned out to every bound picker once per frame, and edits made in a picker are written
+ * back through the inverse transform only, so bound pickers never echo each other.
+ * {@link #bind} and {@link #unbind} must be called on the main thread; the setters may be
+ * called from any thread. The model only references a bound picker while it is attached to
+ * a window, so a discarded picker is not kept alive; it rejoins when attached again.
+ */
+public class ColorModel {
+
+    public interface Transform {
+        long apply(long packedColor);
+        long invert(long packedColor);
+    }
+
+    public static Transform offset(final float hue, final float saturation, final float value) {
+        return new Transform() {
+            @Override
+            public long apply(long packedColor) {
+                return shift(packedColor, hue, saturation, value);
+            }
+            @Override
+            public long invert(long packedColor) {
+                return shift(packedColor, -hue, -saturation, -value);
+            }
+        };
+    }
+
+    private static long shift(long packedColor, float hue, float saturation, float value) {
+        float h = (PackedColor.hue(packedColor) + hue) % 360;
+        if (h < 0) {
+            h += 360;
+        }
+        return PackedColor.pack(PackedColor.alpha(packedColor), h,
+                PackedColor.saturation(packedColor) + saturation,
+                PackedColor.value(packedColor) + value);
+    }
+
+    static final class Binding {
+
+        final ColorModel model;
+        final RectColorPicker picker;
+        final Transform transform;
+
+        Binding(ColorModel model, RectColorPicker picker, Transform transform) {
+            this.model = model;
+            this.picker = picker;
+            this.transform = transform;
+        }
+
+        // model -> picker: transform in the model's space, then convert to the picker's
+        long apply(long packedColor) {
+            if (transform != null) {
+                packedColor = transform.apply(packedColor);
+            }
+            return convert(packedColor, model.mWideGamut, picker.isWideGamut());
+        }
+
+        void publish(long packedColor) {
+            synchronized (model.mLock) {
+                packedColor = convert(packedColor, picker.isWideGamut(), model.mWideGamut);
+                model.mColorState = transform == null ? packedColor : transform.invert(packedColor);
+                model.mPublisher = this;
+            }
+            model.scheduleFanOut();
+        }
+
+        private static long convert(long packedColor, boolean fromWideGamut, boolean toWideGamut) {
+            if (fromWideGamut == toWideGamut) {
+                return packedColor;
+            }
+            return toWideGamut ? WideGamut.toP3(packedColor) : WideGamut.toSRGB(packedColor);
+        }
+
+    }
+
+    // The state and the binding that wrote it change together under mLock.
+    private final Object mLock = new Object();
+    private volatile long mColorState;
+    private Binding mPublisher;
+    private volatile boolean mWideGamut;
+
+    private final ArrayList<Binding> mBindings = new ArrayList<>();
+    private final AtomicBoolean mFanOutPending = new AtomicBoolean();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final Choreographer.FrameCallback mFanOut = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFanOutPending.set(false);
+            long state;
+            Binding publisher;
+            synchronized (mLock) {
+                state = mColorState;
+                publisher = mPublisher;
+            }
+            for (int i = 0; i < mBindings.size(); i++) {
+                Binding binding = mBindings.get(i);
+                long target = binding.apply(state);
+                // The picker that made the edit already shows it, unless the transform clamped
+                // it (e.g. value + 10% below 10%); skip it only if the round trip is lossless.
+                if (binding == publisher &&
+                        PackedColor.isClose(target, binding.picker.getPackedColor())) {
+                    continue;
+                }
+                binding.picker.syncColorModel(target);
+            }
+        }
+    };
+
+    private final Runnable mFanOutScheduler = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mFanOut);
+        }
+    };
+
+    public ColorModel() {
+        this(PackedColor.fromColor(0xFFFF0000));
+    }
+
+    public ColorModel(long packedColor) {
+        mColorState = packedColor;
+    }
+
+    public void bind(@NonNull RectColorPicker picker) {
+        bind(picker, null);
+    }
+
+    public void bind(@NonNull RectColorPicker picker, @Nullable Transform transform) {
+        Binding previous = picker.getColorModelBinding();
+        if (previous != null) {
+            previous.model.unbind(picker);
+        }
+        Binding binding = new Binding(this, picker, transform);
+        picker.setColorModelBinding(binding);
+        if (picker.getWindowToken() != null) {
+            attach(binding);
+        }
+    }
+
+    public void unbind(@NonNull RectColorPicker picker) {
+        Binding binding = picker.getColorModelBinding();
+        if (binding == null || binding.model != this) {
+            return;
+        }
+        detach(binding);
+        picker.setColorModelBinding(null);
+    }
+
+    // Called from RectColorPicker.onAttachedToWindow()/onDetachedFromWindow().
+    void attach(Binding binding) {
+        if (!mBindings.contains(binding)) {
+            mBindings.add(binding);
+        }
+        binding.picker.syncColorModel(binding.apply(mColorState));
+    }
+
+    void detach(Binding binding) {
+        mBindings.remove(binding);
+    }
+
+    // Attached pickers only.
+    public int getBindingCount() {
+        return mBindings.size();
+    }
+
+    // Same as RectColorPicker.setWideGamut(): the color is kept and its coordinates move to
+    // the other space. Pickers in the other space see it converted.
+    public void setWideGamut(boolean wideGamut) {
+        synchronized (mLock) {
+            if (mWideGamut == wideGamut) {
+                return;
+            }
+            mColorState = wideGamut ? WideGamut.toP3(mColorState) : WideGamut.toSRGB(mColorState);
+            mWideGamut = wideGamut;
+            mPublisher = null;
+        }
+        scheduleFanOut();
+    }
+
+    public boolean isWideGamut() {
+        return mWideGamut;
+    }
+
+    // Packed coordinates are in the model's space, Display P3 in wide-gamut mode.
+    public void setPackedColor(long packedColor) {
+        synchronized (mLock) {
+            mColorState = packedColor;
+            mPublisher = null;
+        }
+        scheduleFanOut();
+    }
+
+    public long getPackedColor() {
+        return mColorState;
+    }
+
+    public void setColor(int color) {
+        synchronized (mLock) {
+            mColorState = mWideGamut ? WideGamut.fromColor(color) : PackedColor.fromColor(color);
+            mPublisher = null;
+        }
+        scheduleFanOut();
+    }
+
+    public int getColor() {
+        long state;
+        boolean wideGamut;
+        synchronized (mLock) {
+            state = mColorState;
+            wideGamut = mWideGamut;
+        }
+        return wideGamut ? WideGamut.toColor(state) : PackedColor.toColor(state);
+    }
+
+    private void scheduleFanOut() {
+        if (mFanOutPending.compareAndSet(false, true)) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mFanOutScheduler.run();
+            }
+            else {
+                mMainHandler.post(mFanOutScheduler);
+            }
+        }
+    }
+
+}
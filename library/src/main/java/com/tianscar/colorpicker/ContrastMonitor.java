@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Tracks the WCAG contrast ratio and the CIEDE2000 color difference between the picked color
+ * and a set of opaque reference backgrounds. Attach it with
+ * {@link RectColorPicker#setContrastMonitor(ContrastMonitor)}; it is updated on the UI thread
+ * from the same once-per-frame path as {@link RectColorPicker.OnColorPickedListener}.
+ * A translucent color is composited over each reference in encoded sRGB, the way the
+ * framework blends it on screen, and the composite is what gets measured. Only the references'
+ * luminance and Lab are cached; an opaque color shares one Lab conversion across all of them.
+ */
+public class ContrastMonitor {
+
+    public interface OnContrastChangedListener {
+        void onContrastChanged(ContrastMonitor monitor, int color);
+    }
+
+    private OnContrastChangedListener mOnContrastChangedListener;
+
+    public void setOnContrastChangedListener(OnContrastChangedListener listener) {
+        mOnContrastChangedListener = listener;
+    }
+
+    public OnContrastChangedListener getOnContrastChangedListener() {
+        return mOnContrastChangedListener;
+    }
+
+    private final int[] mReferences;
+    private final float[] mReferenceLuminance;
+    private final float[] mReferenceLab;
+
+    private final float[] mContrastRatios;
+    private final float[] mColorDifferences;
+
+    private final float[] mLab = new float[3];
+
+    private int mColor;
+    private boolean mValid;
+
+    public ContrastMonitor(@NonNull int... references) {
+        int count = references.length;
+        mReferences = new int[count];
+        mReferenceLuminance = new float[count];
+        mReferenceLab = new float[count * 3];
+        mContrastRatios = new float[count];
+        mColorDifferences = new float[count];
+        for (int i = 0; i < count; i++) {
+            int reference = references[i] | 0xFF000000;
+            mReferences[i] = reference;
+            mReferenceLuminance[i] = ColorMath.luminance(reference);
+            ColorMath.colorToLab(reference, mReferenceLab, i * 3);
+        }
+    }
+
+    public int getReferenceCount() {
+        return mReferences.length;
+    }
+
+    public int getReference(int index) {
+        return mReferences[index];
+    }
+
+    public int getColor() {
+        return mColor;
+    }
+
+    public float getContrastRatio(int index) {
+        return mContrastRatios[index];
+    }
+
+    public float getColorDifference(int index) {
+        return mColorDifferences[index];
+    }
+
+    void update(int color) {
+        if (mValid && color == mColor) {
+            return;
+        }
+        boolean opaque = color >>> 24 == 0xFF;
+        float luminance = 0;
+        if (opaque) {
+            luminance = ColorMath.luminance(color);
+            ColorMath.colorToLab(color, mLab, 0);
+        }
+        for (int i = 0; i < mReferences.length; i++) {
+            int offset = i * 3;
+            if (!opaque) {
+                int composite = ColorMath.blend(color, mReferences[i]);
+                luminance = ColorMath.luminance(composite);
+                ColorMath.colorToLab(composite, mLab, 0);
+            }
+            mContrastRatios[i] = ColorMath.contrastRatio(luminance, mReferenceLuminance[i]);
+            mColorDifferences[i] = ColorMath.deltaE2000(mLab[0], mLab[1], mLab[2],
+                    mReferenceLab[offset], mReferenceLab[offset + 1], mReferenceLab[offset + 2]);
+        }
+        mColor = color;
+        mValid = true;
+        if (mOnContrastChangedListener != null) {
+            mOnContrastChangedListener.onContrastChanged(this, color);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+/**
+ * Polar angle lookup for touch handling. atan is read from a table over [0, 1] with linear
+ * interpolation and reduced by octant, which keeps the error below 1e-4 degrees.
+ */
+final class FastPolar {
+
+    private FastPolar(){}
+
+    private static final int TABLE_SIZE = 1024;
+    private static final float[] ATAN_TABLE = new float[TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            ATAN_TABLE[i] = (float) Math.toDegrees(Math.atan((double) i / TABLE_SIZE));
+        }
+    }
+
+    private static float atanUnit(float t) {
+        float index = t * TABLE_SIZE;
+        int i = (int) index;
+        if (i >= TABLE_SIZE) {
+            return ATAN_TABLE[TABLE_SIZE];
+        }
+        float f = index - i;
+        return ATAN_TABLE[i] + (ATAN_TABLE[i + 1] - ATAN_TABLE[i]) * f;
+    }
+
+    /**
+     * @return the angle of (x, y) in degrees within [0, 360), measured clockwise from the
+     * positive x axis in screen coordinates.
+     */
+    static float angle(float x, float y) {
+        float ax = Math.abs(x);
+        float ay = Math.abs(y);
+        if (ax == 0 && ay == 0) {
+            return 0;
+        }
+        float a = ax >= ay ? atanUnit(ay / ax) : 90 - atanUnit(ax / ay);
+        if (x < 0) {
+            a = 180 - a;
+        }
+        if (y < 0) {
+            a = 360 - a;
+        }
+        return a >= 360 ? 0 : a;
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+final class Loupe {
+
+    private Renderer mSource = new CanvasRenderer();
+    private boolean mWideGamut;
+    private final Canvas mCanvas = new Canvas();
+    private final Matrix mMatrix = new Matrix();
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Paint mBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private Bitmap mSnapshot;
+    private float mSnapshotHue;
+    private float mLeft, mTop;
+
+    Loupe() {
+        mBorderPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    void setWideGamut(boolean wideGamut) {
+        if (mWideGamut != wideGamut) {
+            mSource.release();
+            mSource = wideGamut ? new WideGamutRenderer() : new CanvasRenderer();
+            mWideGamut = wideGamut;
+            mSnapshotHue = Float.NaN;
+        }
+    }
+
+    void update(float left, float top, float right, float bottom, float hue) {
+        int width = Math.round(right - left);
+        int height = Math.round(bottom - top);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (mSnapshot == null || mSnapshot.getWidth() != width || mSnapshot.getHeight() != height) {
+            if (mSnapshot != null) {
+                mSnapshot.recycle();
+            }
+            mSnapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mPaint.setShader(new BitmapShader(mSnapshot, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+            mCanvas.setBitmap(mSnapshot);
+            mSnapshotHue = Float.NaN;
+        }
+        if (mSnapshotHue != hue) {
+            mSource.drawSaturationValue(mCanvas, 0, 0, width, height, hue);
+            mSnapshotHue = hue;
+        }
+        mLeft = left;
+        mTop = top;
+    }
+
+    void draw(Canvas canvas, float x, float y, float centerX, float centerY, float radius,
+              float zoom, float strokeWidth) {
+        if (mSnapshot == null) {
+            return;
+        }
+        mMatrix.setScale(zoom, zoom);
+        mMatrix.postTranslate(centerX - (x - mLeft) * zoom, centerY - (y - mTop) * zoom);
+        mPaint.getShader().setLocalMatrix(mMatrix);
+        canvas.drawCircle(centerX, centerY, radius, mPaint);
+
+        mBorderPaint.setColor(Color.WHITE);
+        mBorderPaint.setStrokeWidth(strokeWidth);
+        canvas.drawCircle(centerX, centerY, radius, mBorderPaint);
+        canvas.drawCircle(centerX, centerY, strokeWidth * 2, mBorderPaint);
+        mBorderPaint.setColor(Color.BLACK);
+        mBorderPaint.setStrokeWidth(strokeWidth / 2);
+        canvas.drawCircle(centerX, centerY, radius, mBorderPaint);
+        canvas.drawCircle(centerX, centerY, strokeWidth * 2, mBorderPaint);
+    }
+
+    void release() {
+        if (mSnapshot != null) {
+            mPaint.setShader(null);
+            mSnapshot.recycle();
+            mSnapshot = null;
+        }
+        mSource.release();
+    }
+
+}
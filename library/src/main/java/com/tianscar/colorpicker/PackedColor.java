@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.graphics.Color;
+
+import androidx.core.math.MathUtils;
+
+/**
+ * Packs an HSV color and its alpha into a single {@code long}, so the whole color can be
+ * published and read atomically. Each component takes 16 bits of fixed point:
+ * alpha (0-255) in bits 48-63, hue (0-360) in bits 32-47, saturation (0-1) in bits 16-31
+ * and value (0-1) in bits 0-15.
+ */
+public final class PackedColor {
+
+    private PackedColor(){}
+
+    private static final int ALPHA_SHIFT = 48;
+    private static final int HUE_SHIFT = 32;
+    private static final int SATURATION_SHIFT = 16;
+    private static final int VALUE_SHIFT = 0;
+
+    private static final long COMPONENT_MASK = 0xFFFFL;
+
+    private static final float HUE_SCALE = 65535f / 360f;
+    private static final float UNIT_SCALE = 65535f;
+
+    public static long pack(int alpha, float hue, float saturation, float value) {
+        return packAlpha(alpha) | packHue(hue) | packSaturation(saturation) | packValue(value);
+    }
+
+    public static int alpha(long packed) {
+        return (int) ((packed >>> ALPHA_SHIFT) & COMPONENT_MASK);
+    }
+
+    public static float hue(long packed) {
+        return ((packed >>> HUE_SHIFT) & COMPONENT_MASK) / HUE_SCALE;
+    }
+
+    public static float saturation(long packed) {
+        return ((packed >>> SATURATION_SHIFT) & COMPONENT_MASK) / UNIT_SCALE;
+    }
+
+    public static float value(long packed) {
+        return ((packed >>> VALUE_SHIFT) & COMPONENT_MASK) / UNIT_SCALE;
+    }
+
+    public static long withAlpha(long packed, int alpha) {
+        return (packed & ~(COMPONENT_MASK << ALPHA_SHIFT)) | packAlpha(alpha);
+    }
+
+    public static long withHue(long packed, float hue) {
+        return (packed & ~(COMPONENT_MASK << HUE_SHIFT)) | packHue(hue);
+    }
+
+    public static long withSaturation(long packed, float saturation) {
+        return (packed & ~(COMPONENT_MASK << SATURATION_SHIFT)) | packSaturation(saturation);
+    }
+
+    public static long withValue(long packed, float value) {
+        return (packed & ~(COMPONENT_MASK << VALUE_SHIFT)) | packValue(value);
+    }
+
+    // True when every component differs by at most one fixed point step, hue wrapping at 360.
+    static boolean isClose(long packed1, long packed2) {
+        for (int shift = 0; shift < 64; shift += 16) {
+            long difference = Math.abs(((packed1 >>> shift) & COMPONENT_MASK) -
+                    ((packed2 >>> shift) & COMPONENT_MASK));
+            if (difference > 1 && !(shift == HUE_SHIFT && difference == COMPONENT_MASK)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int toColor(long packed) {
+        return alpha(packed) << 24 |
+                (HSVToColor(hue(packed), saturation(packed), value(packed)) & 0x00FFFFFF);
+    }
+
+    public static long fromColor(int color) {
+        int r = Color.red(color);
+        int g = Color.green(color);
+        int b = Color.blue(color);
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int delta = max - min;
+        float hue = 0;
+        float saturation = 0;
+        if (max != 0 && delta != 0) {
+            saturation = (float) delta / max;
+            if (r == max) {
+                hue = (float) (g - b) / delta;
+            }
+            else if (g == max) {
+                hue = 2 + (float) (b - r) / delta;
+            }
+            else {
+                hue = 4 + (float) (r - g) / delta;
+            }
+            hue *= 60;
+            if (hue < 0) {
+                hue += 360;
+            }
+        }
+        return pack(Color.alpha(color), hue, saturation, max / 255f);
+    }
+
+    // Same rounding as Color.HSVToColor, without the float[] round trip.
+    static int HSVToColor(float hue, float saturation, float value) {
+        saturation = MathUtils.clamp(saturation, 0, 1);
+        value = MathUtils.clamp(value, 0, 1);
+        int v = round(value * 255);
+        if (saturation <= 1.0f / 4096) {
+            return 0xFF000000 | v << 16 | v << 8 | v;
+        }
+        float hx = (hue < 0 || hue >= 360) ? 0 : hue / 60;
+        int w = (int) hx;
+        float f = hx - w;
+        int p = round((1 - saturation) * value * 255);
+        int q = round((1 - saturation * f) * value * 255);
+        int t = round((1 - saturation * (1 - f)) * value * 255);
+        int r, g, b;
+        switch (w) {
+            case 0: r = v; g = t; b = p; break;
+            case 1: r = q; g = v; b = p; break;
+            case 2: r = p; g = v; b = t; break;
+            case 3: r = p; g = q; b = v; break;
+            case 4: r = t; g = p; b = v; break;
+            default: r = v; g = p; b = q; break;
+        }
+        return 0xFF000000 | r << 16 | g << 8 | b;
+    }
+
+    private static int round(float x) {
+        return (int) Math.floor(x + 0.5f);
+    }
+
+    private static long packAlpha(int alpha) {
+        return (long) MathUtils.clamp(alpha, 0, 255) << ALPHA_SHIFT;
+    }
+
+    private static long packHue(float hue) {
+        return (long) Math.round(MathUtils.clamp(hue, 0, 360) * HUE_SCALE) << HUE_SHIFT;
+    }
+
+    private static long packSaturation(float saturation) {
+        return (long) Math.round(MathUtils.clamp(saturation, 0, 1) * UNIT_SCALE) << SATURATION_SHIFT;
+    }
+
+    private static long packValue(float value) {
+        return (long) Math.round(MathUtils.clamp(value, 0, 1) * UNIT_SCALE) << VALUE_SHIFT;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Generates lightness ramps and hue harmonies from a base color in OKLCH, writing into
+ * caller supplied buffers. Out-of-gamut steps keep their lightness and hue and lose chroma.
+ * Nothing is allocated after construction; an instance is not thread-safe.
+ */
+public class PaletteGenerator {
+
+    public static final int COMPLEMENTARY = 0;
+    public static final int ANALOGOUS = 1;
+    public static final int TRIADIC = 2;
+    public static final int SPLIT_COMPLEMENTARY = 3;
+    public static final int TETRADIC = 4;
+
+    public static final float TINT_LIGHTNESS = 0.97f;
+    public static final float SHADE_LIGHTNESS = 0.2f;
+
+    private static final float GAMUT_EPSILON = 1e-4f;
+    private static final int GAMUT_ITERATIONS = 12;
+
+    private static final float[][] HARMONY_OFFSETS = {
+            { 0, 180 },
+            { -30, 0, 30 },
+            { 0, 120, 240 },
+            { 0, 150, 210 },
+            { 0, 90, 180, 270 }
+    };
+
+    private final float[] mScratch = new float[3];
+
+    private int mAlpha = 0xFF;
+    private float mLightness, mChroma, mHue;
+
+    public PaletteGenerator() {
+        setColor(0xFFFF0000);
+    }
+
+    // Expects sRGB coordinates; for a wide-gamut picker pass getColor() to setColor() instead.
+    public void setPackedColor(long packedColor) {
+        setColor(PackedColor.toColor(packedColor));
+    }
+
+    public void setColor(int color) {
+        ColorMath.colorToOklab(color, mScratch, 0);
+        mAlpha = color >>> 24;
+        mLightness = mScratch[0];
+        mChroma = (float) Math.sqrt(mScratch[1] * mScratch[1] + mScratch[2] * mScratch[2]);
+        mHue = mChroma < GAMUT_EPSILON ? 0 : (float) Math.atan2(mScratch[2], mScratch[1]);
+    }
+
+    public float getLightness() {
+        return mLightness;
+    }
+
+    public float getChroma() {
+        return mChroma;
+    }
+
+    public float getHue() {
+        return (float) Math.toDegrees(mHue < 0 ? mHue + Math.PI * 2 : mHue);
+    }
+
+    public static int getHarmonySize(int harmony) {
+        return HARMONY_OFFSETS[harmony].length;
+    }
+
+    public void tints(@NonNull int[] out, int offset, int steps) {
+        ramp(mLightness, TINT_LIGHTNESS, out, offset, steps);
+    }
+
+    public void shades(@NonNull int[] out, int offset, int steps) {
+        ramp(mLightness, SHADE_LIGHTNESS, out, offset, steps);
+    }
+
+    public void ramp(float fromLightness, float toLightness, @NonNull int[] out, int offset,
+                     int steps) {
+        if (offset < 0 || steps < 0 || offset > out.length - steps) {
+            throw new ArrayIndexOutOfBoundsException("length=" + out.length + "; offset=" +
+                    offset + "; steps=" + steps);
+        }
+        float cos = (float) Math.cos(mHue);
+        float sin = (float) Math.sin(mHue);
+        for (int i = 0; i < steps; i++) {
+            float fraction = steps == 1 ? 0 : (float) i / (steps - 1);
+            out[offset + i] = toColor(fromLightness + (toLightness - fromLightness) * fraction,
+                    cos, sin);
+        }
+    }
+
+    public int harmony(int harmony, @NonNull int[] out, int offset) {
+        float[] offsets = HARMONY_OFFSETS[harmony];
+        if (offset < 0 || offset > out.length - offsets.length) {
+            throw new ArrayIndexOutOfBoundsException("length=" + out.length + "; offset=" +
+                    offset + "; count=" + offsets.length);
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            double hue = mHue + Math.toRadians(offsets[i]);
+            out[offset + i] = toColor(mLightness, (float) Math.cos(hue), (float) Math.sin(hue));
+        }
+        return offsets.length;
+    }
+
+    private int toColor(float lightness, float cos, float sin) {
+        lightness = Math.min(Math.max(lightness, 0), 1);
+        float chroma = mChroma;
+        if (!inGamut(lightness, chroma * cos, chroma * sin)) {
+            float low = 0;
+            float high = chroma;
+            for (int i = 0; i < GAMUT_ITERATIONS; i++) {
+                float mid = (low + high) / 2;
+                if (inGamut(lightness, mid * cos, mid * sin)) {
+                    low = mid;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            chroma = low;
+            ColorMath.oklabToLinear(lightness, chroma * cos, chroma * sin, mScratch, 0);
+        }
+        return mAlpha << 24 |
+                ColorMath.linearToSrgb(mScratch[0]) << 16 |
+                ColorMath.linearToSrgb(mScratch[1]) << 8 |
+                ColorMath.linearToSrgb(mScratch[2]);
+    }
+
+    private boolean inGamut(float lightness, float a, float b) {
+        ColorMath.oklabToLinear(lightness, a, b, mScratch, 0);
+        return mScratch[0] >= -GAMUT_EPSILON && mScratch[0] <= 1 + GAMUT_EPSILON &&
+                mScratch[1] >= -GAMUT_EPSILON && mScratch[1] <= 1 + GAMUT_EPSILON &&
+                mScratch[2] >= -GAMUT_EPSILON && mScratch[2] <= 1 + GAMUT_EPSILON;
+    }
+
+}
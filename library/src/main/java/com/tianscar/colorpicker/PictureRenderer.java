@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+
+final class PictureRenderer implements Renderer {
+
+    private final CanvasRenderer mSource = new CanvasRenderer();
+
+    private Picture mPlane;
+    private int mPlaneWidth, mPlaneHeight;
+    private float mPlaneHue;
+
+    private Picture mStrip;
+    private int mStripWidth, mStripHeight;
+    private int mStripOrientation;
+
+    @Override
+    public void drawSaturationValue(Canvas canvas, float left, float top, float right, float bottom,
+                                    float hue) {
+        int width = Math.round(right - left);
+        int height = Math.round(bottom - top);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (mPlane == null || mPlaneWidth != width || mPlaneHeight != height || mPlaneHue != hue) {
+            if (mPlane == null) {
+                mPlane = new Picture();
+            }
+            mSource.drawSaturationValue(mPlane.beginRecording(width, height),
+                    0, 0, width, height, hue);
+            mPlane.endRecording();
+            mPlaneWidth = width;
+            mPlaneHeight = height;
+            mPlaneHue = hue;
+        }
+        int saveCount = canvas.save();
+        canvas.translate(left, top);
+        canvas.drawPicture(mPlane);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    public void drawHue(Canvas canvas, float left, float top, float right, float bottom,
+                        int orientation) {
+        int width = Math.round(right - left);
+        int height = Math.round(bottom - top);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (mStrip == null || mStripWidth != width || mStripHeight != height ||
+                mStripOrientation != orientation) {
+            if (mStrip == null) {
+                mStrip = new Picture();
+            }
+            mSource.drawHue(mStrip.beginRecording(width, height),
+                    0, 0, width, height, orientation);
+            mStrip.endRecording();
+            mStripWidth = width;
+            mStripHeight = height;
+            mStripOrientation = orientation;
+        }
+        int saveCount = canvas.save();
+        canvas.translate(left, top);
+        canvas.drawPicture(mStrip);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    public void release() {
+        mPlane = null;
+        mStrip = null;
+        mSource.release();
+    }
+
+}
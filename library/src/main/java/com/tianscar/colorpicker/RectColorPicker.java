@@ -25,17 +25,22 @@
 
 package com.tianscar.colorpicker;
 
+import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.LinearGradient;
+import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
 import android.graphics.RectF;
 import android.graphics.Shader;
+import android.os.Build;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
@@ -44,6 +49,9 @@ import android.widget.LinearLayout;
 import androidx.annotation.Nullable;
 import androidx.core.math.MathUtils;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class RectColorPicker extends LinearLayout {
 
     public interface OnColorPickedListener {
@@ -66,23 +74,102 @@ public class RectColorPicker extends LinearLayout {
         }
     }
 
+    private final AtomicBoolean mColorPickedPending = new AtomicBoolean();
+    private long mPickedColorState = -1;
+
+    private final Runnable mColorPickedDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            mColorPickedPending.set(false);
+            long state = mColorState.get();
+            if (state != mPickedColorState) {
+                mPickedColorState = state;
+                if (mContrastMonitor != null) {
+                    mContrastMonitor.update(toColor(state));
+                }
+                detectColorPicked(toColor(state));
+            }
+        }
+    };
+
+    private ContrastMonitor mContrastMonitor;
+
+    public void setContrastMonitor(ContrastMonitor monitor) {
+        mContrastMonitor = monitor;
+        if (monitor != null) {
+            monitor.update(getColor());
+        }
+    }
+
+    public ContrastMonitor getContrastMonitor() {
+        return mContrastMonitor;
+    }
+
+    private void dispatchColorPicked() {
+        if (mColorPickedPending.compareAndSet(false, true)) {
+            postOnAnimation(mColorPickedDispatcher);
+        }
+    }
+
     private final ColorRect colorRect;
     private final HueRect hueRect;
+    private final AlphaRect alphaRect;
 
     public final static int ASCENDING = 0;
     public final static int DESCENDING = 1;
 
+    public final static int RENDERER_AUTO = 0;
+    public final static int RENDERER_CANVAS = 1;
+    public final static int RENDERER_BITMAP = 2;
+    public final static int RENDERER_PICTURE = 3;
+
+    // durationNanos is the CPU time of the draw call. On a hardware-accelerated canvas that is
+    // only display list recording, so canvas and picture report close to zero whatever they
+    // cost on the GPU; compare backends on a software layer or with GPU profiling instead.
+    public interface OnRenderListener {
+        void onRender(RectColorPicker picker, int renderer, long durationNanos);
+    }
+
+    private OnRenderListener mOnRenderListener;
+
+    public void setOnRenderListener(OnRenderListener listener) {
+        mOnRenderListener = listener;
+    }
+
+    public OnRenderListener getOnRenderListener() {
+        return mOnRenderListener;
+    }
+
+    private final Renderer.OnRenderListener mRenderDispatcher = new Renderer.OnRenderListener() {
+        @Override
+        public void onRender(int renderer, long durationNanos) {
+            if (mOnRenderListener != null) {
+                mOnRenderListener.onRender(RectColorPicker.this, renderer, durationNanos);
+            }
+        }
+    };
+
+    public void setRenderer(int renderer) {
+        colorRect.setRenderer(renderer);
+        hueRect.setRenderer(renderer);
+    }
+
+    public int getRenderer() {
+        return colorRect.getRenderer();
+    }
+
     private volatile int mOrder;
 
     public int getOrder() {
         return mOrder;
     }
 
-    private int mColorAlpha;
+    private final AtomicLong mColorState = new AtomicLong(PackedColor.pack(0xFF, 0, 1, 1));
 
     public void setCursorWidth(float cursorWidth) {
         colorRect.setCursorWidth(cursorWidth);
         hueRect.setCursorWidth(cursorWidth);
+        alphaRect.setCursorWidth(cursorWidth);
         invalidate();
     }
 
@@ -92,6 +179,7 @@ public class RectColorPicker extends LinearLayout {
 
     public void setCursorRadius(float cursorRadius) {
         hueRect.setCursorRadius(cursorRadius);
+        alphaRect.setCursorRadius(cursorRadius);
     }
 
     @Override
@@ -100,9 +188,11 @@ public class RectColorPicker extends LinearLayout {
         switch (orientation) {
             case HORIZONTAL:
                 hueRect.setOrientation(HueRect.VERTICAL);
+                alphaRect.setOrientation(AlphaRect.VERTICAL);
                 break;
             case VERTICAL:
                 hueRect.setOrientation(HueRect.HORIZONTAL);
+                alphaRect.setOrientation(AlphaRect.HORIZONTAL);
                 break;
         }
     }
@@ -110,12 +200,77 @@ public class RectColorPicker extends LinearLayout {
     public void setCursorVisible(boolean cursorVisible) {
         colorRect.setCursorVisible(cursorVisible);
         hueRect.setCursorVisible(cursorVisible);
+        alphaRect.setCursorVisible(cursorVisible);
     }
 
     public boolean isCursorVisible() {
         return colorRect.isCursorVisible();
     }
 
+    public void setLoupeEnabled(boolean loupeEnabled) {
+        colorRect.setLoupeEnabled(loupeEnabled);
+    }
+
+    public boolean isLoupeEnabled() {
+        return colorRect.isLoupeEnabled();
+    }
+
+    public void setLoupeRadius(float loupeRadius) {
+        colorRect.setLoupeRadius(loupeRadius);
+    }
+
+    public float getLoupeRadius() {
+        return colorRect.getLoupeRadius();
+    }
+
+    public void setLoupeZoom(float loupeZoom) {
+        colorRect.setLoupeZoom(loupeZoom);
+    }
+
+    public float getLoupeZoom() {
+        return colorRect.getLoupeZoom();
+    }
+
+    private long mTouchPredictionTime = 16;
+
+    public void setTouchPredictionEnabled(boolean touchPredictionEnabled) {
+        if (touchPredictionEnabled == isTouchPredictionEnabled()) {
+            return;
+        }
+        if (touchPredictionEnabled) {
+            colorRect.setTouchPredictor(new TouchPredictor(mTouchPredictionTime));
+            hueRect.setTouchPredictor(new TouchPredictor(mTouchPredictionTime));
+        }
+        else {
+            colorRect.setTouchPredictor(null);
+            hueRect.setTouchPredictor(null);
+        }
+    }
+
+    public boolean isTouchPredictionEnabled() {
+        return colorRect.getTouchPredictor() != null;
+    }
+
+    public void setTouchPredictionTime(long touchPredictionTimeMillis) {
+        mTouchPredictionTime = Math.max(0, touchPredictionTimeMillis);
+        if (isTouchPredictionEnabled()) {
+            colorRect.getTouchPredictor().setPredictionTime(mTouchPredictionTime);
+            hueRect.getTouchPredictor().setPredictionTime(mTouchPredictionTime);
+        }
+    }
+
+    public long getTouchPredictionTime() {
+        return mTouchPredictionTime;
+    }
+
+    public void setAlphaRectVisible(boolean alphaRectVisible) {
+        alphaRect.setVisibility(alphaRectVisible ? VISIBLE : GONE);
+    }
+
+    public boolean isAlphaRectVisible() {
+        return alphaRect.getVisibility() == VISIBLE;
+    }
+
     public RectColorPicker(Context context) {
         this(context, null);
     }
@@ -128,23 +283,51 @@ public class RectColorPicker extends LinearLayout {
         super(context, attrs, defStyleAttr);
         colorRect = new ColorRect(context, attrs, defStyleAttr);
         hueRect = new HueRect(context, attrs, defStyleAttr);
+        alphaRect = new AlphaRect(context, attrs, defStyleAttr);
         hueRect.setOnHueChangedListener(new HueRect.OnHueChangedListener() {
             @Override
             public void onHueChanged(float hue) {
+                if (!mSyncing) {
+                    changeHue(hue);
+                    publishColorModel();
+                }
                 colorRect.setHue(hue);
-                detectColorPicked(getColor());
+                alphaRect.setColor(getColor());
+                dispatchColorPicked();
             }
         });
         colorRect.setOnSaturationChangedListener(new ColorRect.OnSaturationChangedListener() {
             @Override
             public void onSaturationChanged(float saturation) {
-                detectColorPicked(getColor());
+                if (!mSyncing) {
+                    changeSaturation(saturation);
+                    publishColorModel();
+                }
+                alphaRect.setColor(getColor());
+                dispatchColorPicked();
             }
         });
         colorRect.setOnValueChangedListener(new ColorRect.OnValueChangedListener() {
             @Override
             public void onValueChanged(float value) {
-                detectColorPicked(getColor());
+                if (!mSyncing) {
+                    changeValue(value);
+                    publishColorModel();
+                }
+                alphaRect.setColor(getColor());
+                dispatchColorPicked();
+            }
+        });
+        colorRect.setOnRenderListener(mRenderDispatcher);
+        hueRect.setOnRenderListener(mRenderDispatcher);
+        alphaRect.setOnAlphaChangedListener(new AlphaRect.OnAlphaChangedListener() {
+            @Override
+            public void onAlphaChanged(int alpha) {
+                if (!mSyncing) {
+                    changeColorAlpha(alpha);
+                    publishColorModel();
+                }
+                dispatchColorPicked();
             }
         });
         TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.RectColorPicker,
@@ -155,12 +338,25 @@ public class RectColorPicker extends LinearLayout {
         setCursorRadius(typedArray.getDimension(R.styleable.RectColorPicker_cursorRadius,
                 getResources().getDimension(R.dimen.colorpicker_rect_cursor_radius_default)));
         setOrientation(typedArray.getInt(R.styleable.RectColorPicker_android_orientation, HORIZONTAL));
+        setAlphaRectVisible(typedArray.getBoolean(R.styleable.RectColorPicker_alphaRectVisible, false));
+        setRenderer(typedArray.getInt(R.styleable.RectColorPicker_renderer, RENDERER_AUTO));
+        setLoupeEnabled(typedArray.getBoolean(R.styleable.RectColorPicker_loupeEnabled, false));
+        setLoupeRadius(typedArray.getDimension(R.styleable.RectColorPicker_loupeRadius,
+                getResources().getDimension(R.dimen.colorpicker_loupe_radius_default)));
+        setLoupeZoom(typedArray.getFloat(R.styleable.RectColorPicker_loupeZoom, 4));
+        setWideGamut(typedArray.getBoolean(R.styleable.RectColorPicker_wideGamut, false));
+        setTouchPredictionTime(typedArray.getInt(R.styleable.RectColorPicker_touchPredictionTime,
+                16));
+        setTouchPredictionEnabled(typedArray.getBoolean(
+                R.styleable.RectColorPicker_touchPredictionEnabled, false));
         final int initOrder = typedArray.getInt(R.styleable.RectColorPicker_order,
                 ASCENDING);
         final float initHueRectWeight = typedArray.getFloat(R.styleable.RectColorPicker_hueRectWeight
                 , 8);
         final float initColorRectWeight = typedArray.getFloat(R.styleable.RectColorPicker_colorRectWeight
         , 2);
+        final float initAlphaRectWeight = typedArray.getFloat(R.styleable.RectColorPicker_alphaRectWeight
+                , 8);
         typedArray.recycle();
         post(new Runnable() {
             @Override
@@ -173,10 +369,15 @@ public class RectColorPicker extends LinearLayout {
                         LayoutParams.WRAP_CONTENT,
                         LayoutParams.MATCH_PARENT);
                 hueRect.setLayoutParams(params2);
+                LayoutParams params3 = new LayoutParams(
+                        LayoutParams.WRAP_CONTENT,
+                        LayoutParams.MATCH_PARENT);
+                alphaRect.setLayoutParams(params3);
                 setColorRectWeight(initColorRectWeight);
                 setHueRectWeight(initHueRectWeight);
-                setColor(Color.RED);
+                setAlphaRectWeight(initAlphaRectWeight);
                 setOrder(initOrder);
+                scheduleColorSync();
             }
         });
     }
@@ -189,6 +390,10 @@ public class RectColorPicker extends LinearLayout {
         Utils.setWeight(colorRect, weight);
     }
 
+    public void setAlphaRectWeight(float weight) {
+        Utils.setWeight(alphaRect, weight);
+    }
+
     public void ascending() {
         setOrder(ASCENDING);
     }
@@ -215,8 +420,10 @@ public class RectColorPicker extends LinearLayout {
             case ASCENDING: default:
                 addView(colorRect);
                 addView(hueRect);
+                addView(alphaRect);
                 break;
             case DESCENDING:
+                addView(alphaRect);
                 addView(hueRect);
                 addView(colorRect);
                 break;
@@ -241,67 +448,395 @@ public class RectColorPicker extends LinearLayout {
         }
     }
 
+    private ValueAnimator mColorAnimator;
+    private long mColorAnimationDuration = -1;
+    private long mAnimationStartState, mAnimationEndState;
+
+    private final ValueAnimator.AnimatorUpdateListener mColorAnimationUpdater =
+            new ValueAnimator.AnimatorUpdateListener() {
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            float fraction = animation.getAnimatedFraction();
+            long state;
+            if (fraction >= 1) {
+                state = mAnimationEndState;
+            }
+            else {
+                float startHue = PackedColor.hue(mAnimationStartState);
+                float hueDelta = PackedColor.hue(mAnimationEndState) - startHue;
+                if (hueDelta > 180) {
+                    hueDelta -= 360;
+                }
+                else if (hueDelta < -180) {
+                    hueDelta += 360;
+                }
+                float hue = startHue + hueDelta * fraction;
+                if (hue < 0) {
+                    hue += 360;
+                }
+                else if (hue >= 360) {
+                    hue -= 360;
+                }
+                state = PackedColor.pack(
+                        Math.round(lerp(PackedColor.alpha(mAnimationStartState),
+                                PackedColor.alpha(mAnimationEndState), fraction)),
+                        hue,
+                        lerp(PackedColor.saturation(mAnimationStartState),
+                                PackedColor.saturation(mAnimationEndState), fraction),
+                        lerp(PackedColor.value(mAnimationStartState),
+                                PackedColor.value(mAnimationEndState), fraction));
+            }
+            if (mColorSyncPending.get()) {
+                return;
+            }
+            mColorState.set(state);
+            applyColorState(state);
+            publishColorModel();
+        }
+    };
+
+    private final Runnable mColorAnimationStarter = new Runnable() {
+        @Override
+        public void run() {
+            if (mColorAnimator == null) {
+                mColorAnimator = ValueAnimator.ofFloat(0, 1);
+                mColorAnimator.addUpdateListener(mColorAnimationUpdater);
+            }
+            mColorAnimator.cancel();
+            mColorAnimator.setDuration(getColorAnimationDuration());
+            mColorSyncPending.set(false);
+            removeCallbacks(mColorSynchronizer);
+            mAnimationStartState = mColorState.get();
+            mColorAnimator.start();
+        }
+    };
+
+    private final Runnable mColorAnimationCanceller = new Runnable() {
+        @Override
+        public void run() {
+            if (mColorAnimator != null) {
+                mColorAnimator.cancel();
+            }
+        }
+    };
+
+    private static float lerp(float start, float end, float fraction) {
+        return start + (end - start) * fraction;
+    }
+
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    public void setColorAnimationDuration(long duration) {
+        mColorAnimationDuration = duration;
+    }
+
+    public long getColorAnimationDuration() {
+        if (mColorAnimationDuration < 0) {
+            return getResources().getInteger(android.R.integer.config_shortAnimTime);
+        }
+        return mColorAnimationDuration;
+    }
+
+    public boolean isColorAnimationRunning() {
+        return mColorAnimator != null && mColorAnimator.isRunning();
+    }
+
+    public void cancelColorAnimation() {
+        if (mColorAnimator != null) {
+            if (isMainThread()) {
+                mColorAnimationCanceller.run();
+            }
+            else {
+                post(mColorAnimationCanceller);
+            }
+        }
+    }
+
+    public void setColor(int color, boolean smooth) {
+        if (!smooth) {
+            setColor(color);
+            return;
+        }
+        mAnimationEndState = fromColor(color);
+        if (isMainThread()) {
+            mColorAnimationStarter.run();
+        }
+        else {
+            post(mColorAnimationStarter);
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            cancelColorAnimation();
+        }
+        return super.onInterceptTouchEvent(event);
+    }
+
+    private final AtomicBoolean mColorSyncPending = new AtomicBoolean();
+    private final AtomicLong mReceivedUpdateCount = new AtomicLong();
+    private volatile long mAppliedUpdateCount;
+    private boolean mSyncing;
+
+    private final Runnable mColorSynchronizer = new Runnable() {
+        @Override
+        public void run() {
+            mColorSyncPending.set(false);
+            if (mColorAnimator != null) {
+                mColorAnimator.cancel();
+            }
+            applyColorState(mColorState.get());
+            mAppliedUpdateCount++;
+        }
+    };
+
+    private void scheduleColorSync() {
+        if (mColorSyncPending.compareAndSet(false, true)) {
+            postOnAnimation(mColorSynchronizer);
+        }
+    }
+
+    private void receiveColorUpdate() {
+        mReceivedUpdateCount.incrementAndGet();
+        scheduleColorSync();
+        publishColorModel();
+    }
+
+    private volatile ColorModel.Binding mColorModelBinding;
+
+    void setColorModelBinding(ColorModel.Binding binding) {
+        mColorModelBinding = binding;
+    }
+
+    ColorModel.Binding getColorModelBinding() {
+        return mColorModelBinding;
+    }
+
+    public ColorModel getColorModel() {
+        ColorModel.Binding binding = mColorModelBinding;
+        return binding == null ? null : binding.model;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        ColorModel.Binding binding = mColorModelBinding;
+        if (binding != null) {
+            binding.model.attach(binding);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        ColorModel.Binding binding = mColorModelBinding;
+        if (binding != null) {
+            binding.model.detach(binding);
+        }
+    }
+
+    private void publishColorModel() {
+        ColorModel.Binding binding = mColorModelBinding;
+        if (binding != null) {
+            binding.publish(mColorState.get());
+        }
+    }
+
+    // Called by the model on the main thread, never written back.
+    void syncColorModel(long state) {
+        // Like mColorSynchronizer: a running or queued setColor(int, true) animation would
+        // otherwise overwrite the synced state and publish it back to the model.
+        removeCallbacks(mColorAnimationStarter);
+        if (mColorAnimator != null) {
+            mColorAnimator.cancel();
+        }
+        if (mColorState.get() == state) {
+            return;
+        }
+        mColorState.set(state);
+        applyColorState(state);
+    }
+
+    private void applyColorState(long state) {
+        mSyncing = true;
+        try {
+            float hue = PackedColor.hue(state);
+            hueRect.setHue(hue);
+            colorRect.setHue(hue);
+            colorRect.setSaturation(PackedColor.saturation(state));
+            colorRect.setValue(PackedColor.value(state));
+            alphaRect.setColor(toColor(state));
+            alphaRect.setColorAlpha(PackedColor.alpha(state));
+        }
+        finally {
+            mSyncing = false;
+        }
+        dispatchColorPicked();
+    }
+
+    public long getReceivedUpdateCount() {
+        return mReceivedUpdateCount.get();
+    }
+
+    public long getAppliedUpdateCount() {
+        return mAppliedUpdateCount;
+    }
+
     public void setColor(int color) {
-        mColorAlpha = Color.alpha(color);
-        float[] colorHSV = new float[3];
-        Color.colorToHSV(color, colorHSV);
-        setHue(colorHSV[0]);
-        setSaturation(colorHSV[1]);
-        setValue(colorHSV[2]);
+        mColorState.set(fromColor(color));
+        receiveColorUpdate();
+    }
+
+    public void setColorLong(long color) {
+        if (mWideGamut) {
+            mColorState.set(WideGamut.fromColorLong(color));
+            receiveColorUpdate();
+        }
+        else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            setColor(Color.toArgb(color));
+        }
+        else {
+            setColor(WideGamut.unpackSRGB(color));
+        }
+    }
+
+    // Packed coordinates are in the picker's working space, Display P3 in wide-gamut mode.
+    public void setPackedColor(long packedColor) {
+        mColorState.set(packedColor);
+        receiveColorUpdate();
+    }
+
+    public void setHSV(float hue, float saturation, float value) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.pack(PackedColor.alpha(prev), hue, saturation, value);
+        } while (!mColorState.compareAndSet(prev, next));
+        receiveColorUpdate();
+    }
+
+    public int getColor() {
+        return toColor(mColorState.get());
+    }
+
+    public long getColorLong() {
+        long state = mColorState.get();
+        return mWideGamut ? WideGamut.toColorLong(state) :
+                WideGamut.packSRGB(PackedColor.toColor(state));
+    }
+
+    private volatile boolean mWideGamut;
+
+    // Keeps the picked color and moves its coordinates into the other space; leaving P3
+    // clips to sRGB.
+    public void setWideGamut(boolean wideGamut) {
+        if (mWideGamut == wideGamut) {
+            return;
+        }
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = wideGamut ? WideGamut.toP3(prev) : WideGamut.toSRGB(prev);
+        } while (!mColorState.compareAndSet(prev, next));
+        mWideGamut = wideGamut;
+        colorRect.setWideGamut(wideGamut);
+        hueRect.setWideGamut(wideGamut);
+        scheduleColorSync();
+    }
+
+    public boolean isWideGamut() {
+        return mWideGamut;
     }
 
-    private int getColor() {
-        return mColorAlpha << 24 | (Color.HSVToColor(new float[] {
-                hueRect.getHue(), colorRect.getSaturation(), colorRect.getValue()
-        }) & 0x00FFFFFF);
+    private int toColor(long state) {
+        return mWideGamut ? WideGamut.toColor(state) : PackedColor.toColor(state);
     }
 
-    public float getAlpha() {
-        return mColorAlpha;
+    private long fromColor(int color) {
+        return mWideGamut ? WideGamut.fromColor(color) : PackedColor.fromColor(color);
+    }
+
+    public long getPackedColor() {
+        return mColorState.get();
+    }
+
+    public int getColorAlpha() {
+        return PackedColor.alpha(mColorState.get());
     }
 
     public float getHue() {
-        return hueRect.getHue();
+        return PackedColor.hue(mColorState.get());
     }
 
     public float getSaturation() {
-        return colorRect.getSaturation();
+        return PackedColor.saturation(mColorState.get());
     }
 
     public float getValue() {
-        return colorRect.getValue();
+        return PackedColor.value(mColorState.get());
     }
 
+    public void setColorAlpha(int alpha) {
+        changeColorAlpha(alpha);
+        receiveColorUpdate();
+    }
+
+    /**
+     * @deprecated Overloads {@link View#setAlpha(float)}, use {@link #setColorAlpha(int)} instead.
+     */
+    @Deprecated
     public void setAlpha(int alpha) {
-        mColorAlpha = alpha;
+        setColorAlpha(alpha);
     }
 
-    public void setHue(final float hue) {
-        colorRect.setHue(hue);
-        hueRect.post(new Runnable() {
-            @Override
-            public void run() {
-                hueRect.setHue(hue);
-            }
-        });
+    private void changeColorAlpha(int alpha) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withAlpha(prev, alpha);
+        } while (!mColorState.compareAndSet(prev, next));
     }
 
-    public void setSaturation(final float saturation) {
-        colorRect.post(new Runnable() {
-            @Override
-            public void run() {
-                colorRect.setSaturation(saturation);
-            }
-        });
+    private void changeHue(float hue) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withHue(prev, hue);
+        } while (!mColorState.compareAndSet(prev, next));
     }
 
-    public void setValue(final float value) {
-        colorRect.post(new Runnable() {
-            @Override
-            public void run() {
-                colorRect.setValue(value);
-            }
-        });
+    private void changeSaturation(float saturation) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withSaturation(prev, saturation);
+        } while (!mColorState.compareAndSet(prev, next));
+    }
+
+    private void changeValue(float value) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withValue(prev, value);
+        } while (!mColorState.compareAndSet(prev, next));
+    }
+
+    public void setHue(float hue) {
+        changeHue(hue);
+        receiveColorUpdate();
+    }
+
+    public void setSaturation(float saturation) {
+        changeSaturation(saturation);
+        receiveColorUpdate();
+    }
+
+    public void setValue(float value) {
+        changeValue(value);
+        receiveColorUpdate();
     }
 
     static class ColorRect extends View {
@@ -310,7 +845,27 @@ public class RectColorPicker extends LinearLayout {
         private boolean mCursorVisible;
         private float mCursorWidth;
 
-        private final Paint mColorPaint;
+        private int mRendererType;
+        private int mResolvedRenderer;
+        private boolean mWideGamut;
+        private boolean mRendererWideGamut;
+        private Renderer mRenderer;
+        private Renderer.OnRenderListener mOnRenderListener;
+
+        private boolean mLoupeEnabled;
+        private float mLoupeRadius;
+        private float mLoupeZoom;
+        private Loupe mLoupe;
+        private boolean mDragging;
+
+        private TouchPredictor mTouchPredictor;
+        // Redraws once the last sample goes stale, so a paused finger drops the prediction.
+        private final Runnable mPredictionExpiry = new Runnable() {
+            @Override
+            public void run() {
+                invalidate();
+            }
+        };
 
         private final float[] mColorHSV = { 1.0f, 1.0f, 1.0f };
 
@@ -406,6 +961,57 @@ public class RectColorPicker extends LinearLayout {
             return mCursorVisible;
         }
 
+        public void setLoupeEnabled(boolean loupeEnabled) {
+            mLoupeEnabled = loupeEnabled;
+            if (loupeEnabled) {
+                prepareLoupe();
+            }
+            else if (mLoupe != null) {
+                mLoupe.release();
+                mLoupe = null;
+            }
+            invalidate();
+        }
+
+        // Created outside onDraw: when enabled, and again on touch down if a detach released it.
+        private void prepareLoupe() {
+            if (mLoupe == null) {
+                mLoupe = new Loupe();
+                mLoupe.setWideGamut(mWideGamut);
+            }
+        }
+
+        public boolean isLoupeEnabled() {
+            return mLoupeEnabled;
+        }
+
+        public void setLoupeRadius(float loupeRadius) {
+            mLoupeRadius = loupeRadius;
+            invalidate();
+        }
+
+        public float getLoupeRadius() {
+            return mLoupeRadius;
+        }
+
+        public void setLoupeZoom(float loupeZoom) {
+            mLoupeZoom = loupeZoom;
+            invalidate();
+        }
+
+        public float getLoupeZoom() {
+            return mLoupeZoom;
+        }
+
+        public void setTouchPredictor(TouchPredictor touchPredictor) {
+            mTouchPredictor = touchPredictor;
+            invalidate();
+        }
+
+        public TouchPredictor getTouchPredictor() {
+            return mTouchPredictor;
+        }
+
         public void setPositionX(float positionX) {
             this.positionX = positionX;
             changeSaturation(getPositionXSaturation(positionX));
@@ -428,21 +1034,14 @@ public class RectColorPicker extends LinearLayout {
 
         public ColorRect(Context context, AttributeSet attrs, int defStyle) {
             super(context, attrs, defStyle);
-            mColorPaint = new Paint();
             mCursorPaint = new Paint();
             mCursorPaint.setDither(true);
             mCursorPaint.setAntiAlias(true);
             mCursorPaint.setStyle(Paint.Style.STROKE);
             mCursorVisible = true;
             mCursorWidth = getResources().getDimension(R.dimen.colorpicker_cursor_width_default);
-            post(new Runnable() {
-                @Override
-                public void run() {
-                    setHue(0);
-                    setSaturation(0);
-                    setValue(1);
-                }
-            });
+            mLoupeRadius = getResources().getDimension(R.dimen.colorpicker_loupe_radius_default);
+            mLoupeZoom = 4;
         }
 
         @Override
@@ -463,41 +1062,110 @@ public class RectColorPicker extends LinearLayout {
             }
         }
 
+        // Positions depend on the measured size, which is still 0 for the first sync.
+        @Override
+        protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+            super.onSizeChanged(w, h, oldw, oldh);
+            positionX = getPositionXFromSaturation(mSaturation);
+            positionY = getPositionYFromValue(mValue);
+        }
+
         private float safeCursorWidth() {
             return Math.max(
                     getResources().getDimension(R.dimen.colorpicker_cursor_width_default),
                     mCursorWidth);
         }
 
-        @SuppressLint("DrawAllocation")
+        public void setRenderer(int renderer) {
+            mRendererType = renderer;
+            invalidate();
+        }
+
+        public int getRenderer() {
+            return mRendererType;
+        }
+
+        public void setOnRenderListener(Renderer.OnRenderListener listener) {
+            mOnRenderListener = listener;
+        }
+
+        public void setWideGamut(boolean wideGamut) {
+            mWideGamut = wideGamut;
+            if (mLoupe != null) {
+                mLoupe.setWideGamut(wideGamut);
+            }
+            invalidate();
+        }
+
+        @Override
+        protected void onDetachedFromWindow() {
+            super.onDetachedFromWindow();
+            if (mRenderer != null) {
+                mRenderer.release();
+                mRenderer = null;
+            }
+            if (mLoupe != null) {
+                mLoupe.release();
+                mLoupe = null;
+            }
+        }
+
         @Override
         protected void onDraw(Canvas canvas) {
             super.onDraw(canvas);
 
             float strokeWidth = safeCursorWidth();
 
-            LinearGradient luar = new LinearGradient(0, 0,
-                    0, getMeasuredHeight(), 0xFFFFFFFF, 0xFF000000, Shader.TileMode.CLAMP);
-            int color = Color.HSVToColor(mColorHSV);
-            LinearGradient dalam = new LinearGradient(0, 0,
-                    getMeasuredWidth(), 0, 0xFFFFFFFF, color, Shader.TileMode.CLAMP);
-            mColorPaint.setShader(luar);
-            canvas.drawRect(strokeWidth * 3, strokeWidth * 3,
-                    getMeasuredWidth() - strokeWidth * 3, getMeasuredHeight() - strokeWidth * 3,
-                    mColorPaint);
-            mColorPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.MULTIPLY));
-            mColorPaint.setShader(dalam);
-            canvas.drawRect(strokeWidth * 3, strokeWidth * 3,
+            int renderer = Utils.resolveRenderer(mRendererType, canvas, mWideGamut);
+            if (mRenderer == null || mResolvedRenderer != renderer ||
+                    mRendererWideGamut != mWideGamut) {
+                if (mRenderer != null) {
+                    mRenderer.release();
+                }
+                mRenderer = Utils.createRenderer(renderer, mWideGamut);
+                mResolvedRenderer = renderer;
+                mRendererWideGamut = mWideGamut;
+            }
+            long start = System.nanoTime();
+            mRenderer.drawSaturationValue(canvas, strokeWidth * 3, strokeWidth * 3,
                     getMeasuredWidth() - strokeWidth * 3, getMeasuredHeight() - strokeWidth * 3,
-                    mColorPaint);
+                    mColorHSV[0]);
+            if (mOnRenderListener != null) {
+                mOnRenderListener.onRender(renderer, System.nanoTime() - start);
+            }
 
-            if (mCursorVisible) {
+            float cursorX = positionX;
+            float cursorY = positionY;
+            if (mTouchPredictor != null && mDragging &&
+                    mTouchPredictor.isPredicting(SystemClock.uptimeMillis())) {
+                cursorX = MathUtils.clamp(mTouchPredictor.getPredictedX(),
+                        strokeWidth * 3, getMeasuredWidth() - strokeWidth * 3);
+                cursorY = MathUtils.clamp(mTouchPredictor.getPredictedY(),
+                        strokeWidth * 3, getMeasuredHeight() - strokeWidth * 3);
+            }
+
+            if (mCursorVisible) {
                 mCursorPaint.setColor(Color.WHITE);
                 mCursorPaint.setStrokeWidth(strokeWidth);
-                canvas.drawCircle(positionX, positionY, strokeWidth * 2, mCursorPaint);
+                canvas.drawCircle(cursorX, cursorY, strokeWidth * 2, mCursorPaint);
                 mCursorPaint.setColor(Color.BLACK);
                 mCursorPaint.setStrokeWidth(strokeWidth / 2);
-                canvas.drawCircle(positionX, positionY, strokeWidth * 2, mCursorPaint);
+                canvas.drawCircle(cursorX, cursorY, strokeWidth * 2, mCursorPaint);
+            }
+
+            if (mLoupeEnabled && mDragging && mLoupe != null) {
+                mLoupe.update(strokeWidth * 3, strokeWidth * 3,
+                        getMeasuredWidth() - strokeWidth * 3, getMeasuredHeight() - strokeWidth * 3,
+                        mColorHSV[0]);
+                float radius = Math.min(mLoupeRadius,
+                        Math.min(getMeasuredWidth(), getMeasuredHeight()) / 2f);
+                float centerX = MathUtils.clamp(cursorX, radius, getMeasuredWidth() - radius);
+                float centerY = cursorY - radius * 1.5f;
+                if (centerY < radius) {
+                    centerY = cursorY + radius * 1.5f;
+                }
+                mLoupe.draw(canvas, cursorX, cursorY, centerX, centerY, radius, mLoupeZoom,
+                        strokeWidth);
             }
 
         }
@@ -523,10 +1191,26 @@ public class RectColorPicker extends LinearLayout {
                             strokeWidth * 3, getMeasuredWidth() - strokeWidth * 3);
                     positionY = MathUtils.clamp(event.getY(),
                             strokeWidth * 3, getMeasuredHeight() - strokeWidth * 3);
+                    mDragging = event.getAction() != MotionEvent.ACTION_UP;
+                    if (mLoupeEnabled && event.getAction() == MotionEvent.ACTION_DOWN) {
+                        prepareLoupe();
+                    }
+                    if (mTouchPredictor != null) {
+                        mTouchPredictor.addMotionEvent(event);
+                        removeCallbacks(mPredictionExpiry);
+                        if (mDragging) {
+                            postDelayed(mPredictionExpiry, TouchPredictor.STALE_TIMEOUT + 1);
+                        }
+                    }
                     changeSaturation(getPositionXSaturation(positionX));
                     changeValue(getPositionYValue(positionY));
                     invalidate();
                     break;
+                case MotionEvent.ACTION_CANCEL:
+                    mDragging = false;
+                    removeCallbacks(mPredictionExpiry);
+                    invalidate();
+                    break;
             }
             return true;
         }
@@ -557,23 +1241,45 @@ public class RectColorPicker extends LinearLayout {
 
     }
 
-    static class HueRect extends View {
+    static class AlphaRect extends View {
 
         public static final int HORIZONTAL = 0;
         public static final int VERTICAL = 1;
 
-        private static final int[] mColors;
+        private static BitmapShader sCheckerShader;
+        private static int sCheckerCellSize;
+
+        private static BitmapShader obtainCheckerShader(int cellSize) {
+            cellSize = Math.max(cellSize, 1);
+            if (sCheckerShader == null || sCheckerCellSize != cellSize) {
+                Bitmap tile = Bitmap.createBitmap(cellSize * 2, cellSize * 2, Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(tile);
+                Paint paint = new Paint();
+                canvas.drawColor(Color.WHITE);
+                paint.setColor(Color.LTGRAY);
+                canvas.drawRect(0, 0, cellSize, cellSize, paint);
+                canvas.drawRect(cellSize, cellSize, cellSize * 2, cellSize * 2, paint);
+                sCheckerShader = new BitmapShader(tile, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
+                sCheckerCellSize = cellSize;
+            }
+            return sCheckerShader;
+        }
 
-        static {
-            int colorCount = 12;
-            int colorAngleStep = 360 / colorCount;
-            mColors = new int[colorCount + 1];
-            float[] hsv = new float[]{0f, 1f, 1f};
-            for (int i = 0; i < mColors.length; i++) {
-                hsv[0] = 360 - (i * colorAngleStep) % 360;
-                if (hsv[0] == 360) hsv[0] = 359;
-                mColors[i] = Color.HSVToColor(hsv);
+        // Alpha-only ramp, 255 at the start. An ALPHA_8 shader is tinted with the paint color,
+        // so a color change is a setColor() instead of a new gradient. Only the bitmap is shared;
+        // the shader carries each view's local matrix.
+        private static Bitmap sAlphaRamp;
+
+        private static Bitmap obtainAlphaRamp() {
+            if (sAlphaRamp == null) {
+                Bitmap ramp = Bitmap.createBitmap(256, 1, Bitmap.Config.ALPHA_8);
+                Paint paint = new Paint();
+                paint.setShader(new LinearGradient(0.5f, 0, 255.5f, 0,
+                        0xFFFFFFFF, 0x00FFFFFF, Shader.TileMode.CLAMP));
+                new Canvas(ramp).drawRect(0, 0, 256, 1, paint);
+                sAlphaRamp = ramp;
             }
+            return sAlphaRamp;
         }
 
         private final Paint mCursorPaint;
@@ -582,6 +1288,35 @@ public class RectColorPicker extends LinearLayout {
         private float mCursorRadius;
         private int mOrientation;
 
+        private final Paint mCheckerPaint;
+        private final Paint mColorPaint;
+        private final BitmapShader mRampShader;
+        private final RectF mCursorRect = new RectF();
+
+        private int mColor = Color.RED;
+        private final Matrix mRampMatrix = new Matrix();
+        private int mRampWidth, mRampHeight;
+        private int mRampOrientation;
+        private float mRampStrokeWidth;
+
+        private int mAlpha;
+
+        private float mPosition;
+
+        private OnAlphaChangedListener mOnAlphaChangedListener;
+
+        public interface OnAlphaChangedListener {
+            void onAlphaChanged(int alpha);
+        }
+
+        public void setOnAlphaChangedListener(OnAlphaChangedListener listener) {
+            mOnAlphaChangedListener = listener;
+        }
+
+        public OnAlphaChangedListener getOnAlphaChangedListener() {
+            return mOnAlphaChangedListener;
+        }
+
         public void setCursorWidth(float cursorWidth) {
             mCursorWidth = cursorWidth;
             invalidate();
@@ -613,12 +1348,296 @@ public class RectColorPicker extends LinearLayout {
             return mCursorVisible;
         }
 
-        private final Paint mColorPaint;
+        public AlphaRect(Context context) {
+            this(context, null);
+        }
+
+        public AlphaRect(Context context, @Nullable AttributeSet attrs) {
+            this(context, attrs, 0);
+        }
+
+        public AlphaRect(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+            super(context, attrs, defStyleAttr);
+            mCheckerPaint = new Paint();
+            mCheckerPaint.setShader(obtainCheckerShader(getResources().getDimensionPixelSize(
+                    R.dimen.colorpicker_alpha_checker_size_default)));
+            mColorPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            mRampShader = new BitmapShader(obtainAlphaRamp(), Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            mColorPaint.setShader(mRampShader);
+            mCursorPaint = new Paint();
+            mCursorPaint.setDither(true);
+            mCursorPaint.setAntiAlias(true);
+            mCursorPaint.setStyle(Paint.Style.STROKE);
+            mCursorVisible = true;
+            mCursorWidth = getResources().getDimension(R.dimen.colorpicker_cursor_width_default);
+            mCursorRadius = getResources().getDimension(R.dimen.colorpicker_rect_cursor_radius_default);
+            mOrientation = VERTICAL;
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            int widthSpecMode = MeasureSpec.getMode(widthMeasureSpec);
+            int heightSpecMode = MeasureSpec.getMode(heightMeasureSpec);
+            int widthSpecSize = MeasureSpec.getSize(widthMeasureSpec);
+            int heightSpecSize = MeasureSpec.getSize(heightMeasureSpec);
+            if (widthSpecMode == MeasureSpec.AT_MOST && heightSpecMode == MeasureSpec.AT_MOST) {
+                setMeasuredDimension(getMeasuredWidth(), getMeasuredHeight());
+            }
+            else if (widthSpecMode == MeasureSpec.AT_MOST) {
+                setMeasuredDimension(getMeasuredWidth(), heightSpecSize);
+            }
+            else if (heightSpecMode == MeasureSpec.AT_MOST) {
+                setMeasuredDimension(widthSpecSize, getMeasuredHeight());
+            }
+        }
+
+        @Override
+        protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+            super.onSizeChanged(w, h, oldw, oldh);
+            mPosition = getPositionFromAlpha(mAlpha);
+        }
+
+        private float safeCursorWidth() {
+            return Math.max(
+                    getResources().getDimension(R.dimen.colorpicker_cursor_width_default),
+                    mCursorWidth);
+        }
+
+        public void setColor(int color) {
+            color |= 0xFF000000;
+            if (mColor != color) {
+                mColor = color;
+                invalidate();
+            }
+        }
+
+        private void updateRampMatrix(float strokeWidth) {
+            int width = getMeasuredWidth();
+            int height = getMeasuredHeight();
+            if (mRampWidth == width && mRampHeight == height && mRampOrientation == mOrientation &&
+                    mRampStrokeWidth == strokeWidth) {
+                return;
+            }
+            switch (mOrientation) {
+                case VERTICAL: default:
+                    mRampMatrix.setRotate(90);
+                    mRampMatrix.postScale(1, (height - strokeWidth * 6) / 256);
+                    mRampMatrix.postTranslate(0, strokeWidth * 3);
+                    break;
+                case HORIZONTAL:
+                    mRampMatrix.setScale((width - strokeWidth * 6) / 256, 1);
+                    mRampMatrix.postTranslate(strokeWidth * 3, 0);
+                    break;
+            }
+            mRampShader.setLocalMatrix(mRampMatrix);
+            mRampWidth = width;
+            mRampHeight = height;
+            mRampOrientation = mOrientation;
+            mRampStrokeWidth = strokeWidth;
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            super.onDraw(canvas);
+
+            float strokeWidth = safeCursorWidth();
+
+            updateRampMatrix(strokeWidth);
+            mColorPaint.setColor(mColor);
+            switch (mOrientation) {
+                case VERTICAL: default:
+                    canvas.drawRect(strokeWidth * 2, strokeWidth * 3,
+                            getMeasuredWidth() - strokeWidth * 2,
+                            getMeasuredHeight() - strokeWidth * 3,
+                            mCheckerPaint);
+                    canvas.drawRect(strokeWidth * 2, strokeWidth * 3,
+                            getMeasuredWidth() - strokeWidth * 2,
+                            getMeasuredHeight() - strokeWidth * 3,
+                            mColorPaint);
+                    break;
+                case HORIZONTAL:
+                    canvas.drawRect(strokeWidth * 3, strokeWidth * 2,
+                            getMeasuredWidth() - strokeWidth * 3,
+                            getMeasuredHeight() - strokeWidth * 2,
+                            mCheckerPaint);
+                    canvas.drawRect(strokeWidth * 3, strokeWidth * 2,
+                            getMeasuredWidth() - strokeWidth * 3,
+                            getMeasuredHeight() - strokeWidth * 2,
+                            mColorPaint);
+                    break;
+            }
+
+            if (mCursorVisible) {
+
+                mCursorPaint.setStrokeWidth(strokeWidth);
+                mCursorPaint.setColor(Color.WHITE);
+
+                switch (mOrientation) {
+                    case VERTICAL: default:
+                        mCursorRect.set(strokeWidth / 2,
+                                mPosition - strokeWidth * 2, getMeasuredWidth() - strokeWidth / 2,
+                                mPosition + strokeWidth * 2);
+                        break;
+                    case HORIZONTAL:
+                        mCursorRect.set(mPosition - strokeWidth * 2, strokeWidth / 2,
+                                mPosition + strokeWidth * 2,
+                                getMeasuredHeight() - strokeWidth / 2);
+                        break;
+                }
+
+                canvas.drawRoundRect(mCursorRect, mCursorRadius, mCursorRadius, mCursorPaint);
+
+                mCursorPaint.setColor(Color.BLACK);
+                mCursorPaint.setStrokeWidth(strokeWidth / 2);
+
+                canvas.drawRoundRect(mCursorRect, mCursorRadius, mCursorRadius, mCursorPaint);
+
+            }
+
+        }
+
+        public void setColorAlpha(int alpha) {
+            changeColorAlpha(alpha);
+            mPosition = getPositionFromAlpha(alpha);
+            invalidate();
+        }
+
+        private void changeColorAlpha(int alpha) {
+            alpha = MathUtils.clamp(alpha, 0, 255);
+            int oldAlpha = getColorAlpha();
+            mAlpha = alpha;
+            if (mOnAlphaChangedListener != null) {
+                if (mAlpha != oldAlpha) {
+                    mOnAlphaChangedListener.onAlphaChanged(mAlpha);
+                }
+            }
+        }
+
+        public int getColorAlpha() {
+            return mAlpha;
+        }
+
+        @SuppressLint("ClickableViewAccessibility")
+        @Override
+        public boolean onTouchEvent(MotionEvent event) {
+            if (hasOnClickListeners()) {
+                return super.onTouchEvent(event);
+            }
+            switch (event.getAction()) {
+                case MotionEvent.ACTION_DOWN:
+                case MotionEvent.ACTION_MOVE:
+                case MotionEvent.ACTION_UP:
+                    float strokeWidth = safeCursorWidth();
+                    switch (mOrientation) {
+                        case VERTICAL: default:
+                            mPosition = MathUtils.clamp(event.getY(),
+                                    strokeWidth * 3, getMeasuredHeight() - strokeWidth * 3);
+                            break;
+                        case HORIZONTAL:
+                            mPosition = MathUtils.clamp(event.getX(),
+                                    strokeWidth * 3, getMeasuredWidth() - strokeWidth * 3);
+                            break;
+                    }
+                    changeColorAlpha(getPositionAlpha(mPosition));
+                    invalidate();
+                    break;
+            }
+            return true;
+        }
+
+        public int getPositionAlpha(float position) {
+            float strokeWidth = safeCursorWidth();
+            float length;
+            switch (mOrientation) {
+                case VERTICAL: default:
+                    length = getMeasuredHeight();
+                    break;
+                case HORIZONTAL:
+                    length = getMeasuredWidth();
+                    break;
+            }
+            position = MathUtils.clamp(position, strokeWidth * 3, length - strokeWidth * 3);
+            return Math.round(255 - (position - strokeWidth * 3) / (length - strokeWidth * 6) * 255);
+        }
+
+        public float getPositionFromAlpha(int alpha) {
+            alpha = MathUtils.clamp(alpha, 0, 255);
+            float strokeWidth = safeCursorWidth();
+            switch (mOrientation) {
+                case VERTICAL: default:
+                    return strokeWidth * 3 + (getMeasuredHeight() - strokeWidth * 6) * (255 - alpha) / 255;
+                case HORIZONTAL:
+                    return strokeWidth * 3 + (getMeasuredWidth() - strokeWidth * 6) * (255 - alpha) / 255;
+            }
+        }
+
+    }
+
+    static class HueRect extends View {
+
+        public static final int HORIZONTAL = 0;
+        public static final int VERTICAL = 1;
+
+        private final Paint mCursorPaint;
+        private final RectF mCursorRect = new RectF();
+        private boolean mCursorVisible;
+        private float mCursorWidth;
+        private float mCursorRadius;
+        private int mOrientation;
+
+        public void setCursorWidth(float cursorWidth) {
+            mCursorWidth = cursorWidth;
+            invalidate();
+        }
+
+        public float getCursorWidth() {
+            return mCursorWidth;
+        }
+
+        public void setCursorRadius(float cursorRadius) {
+            mCursorRadius = cursorRadius;
+        }
+
+        public void setOrientation(int orientation) {
+            mOrientation = orientation;
+            invalidate();
+        }
+
+        public int getOrientation() {
+            return mOrientation;
+        }
+
+        public void setCursorVisible(boolean cursorVisible) {
+            mCursorVisible = cursorVisible;
+            invalidate();
+        }
+
+        public boolean isCursorVisible() {
+            return mCursorVisible;
+        }
+
+        private int mRendererType;
+        private int mResolvedRenderer;
+        private boolean mWideGamut;
+        private boolean mRendererWideGamut;
+        private Renderer mRenderer;
+        private Renderer.OnRenderListener mOnRenderListener;
 
         private float mHue;
 
         private float mPosition;
 
+        private TouchPredictor mTouchPredictor;
+        // Redraws once the last sample goes stale, so a paused finger drops the prediction.
+        private final Runnable mPredictionExpiry = new Runnable() {
+            @Override
+            public void run() {
+                invalidate();
+            }
+        };
+        private boolean mDragging;
+
         private OnHueChangedListener mOnHueChangedListener;
 
         public interface OnHueChangedListener {
@@ -643,7 +1662,6 @@ public class RectColorPicker extends LinearLayout {
 
         public HueRect(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
             super(context, attrs, defStyleAttr);
-            mColorPaint = new Paint();
             mCursorPaint = new Paint();
             mCursorPaint.setDither(true);
             mCursorPaint.setAntiAlias(true);
@@ -652,12 +1670,6 @@ public class RectColorPicker extends LinearLayout {
             mCursorWidth = getResources().getDimension(R.dimen.colorpicker_cursor_width_default);
             mCursorRadius = getResources().getDimension(R.dimen.colorpicker_rect_cursor_radius_default);
             mOrientation = VERTICAL;
-            post(new Runnable() {
-                @Override
-                public void run() {
-                    setHue(0);
-                }
-            });
         }
 
         @Override
@@ -678,73 +1690,129 @@ public class RectColorPicker extends LinearLayout {
             }
         }
 
+        @Override
+        protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+            super.onSizeChanged(w, h, oldw, oldh);
+            mPosition = getPositionFromHue(mHue);
+        }
+
         private float safeCursorWidth() {
             return Math.max(
                     getResources().getDimension(R.dimen.colorpicker_cursor_width_default),
                     mCursorWidth);
         }
 
-        @SuppressLint("DrawAllocation")
         @Override
         protected void onDraw(Canvas canvas) {
             super.onDraw(canvas);
 
             float strokeWidth = safeCursorWidth();
 
-            LinearGradient luar;
+            int renderer = Utils.resolveRenderer(mRendererType, canvas, mWideGamut);
+            if (mRenderer == null || mResolvedRenderer != renderer ||
+                    mRendererWideGamut != mWideGamut) {
+                if (mRenderer != null) {
+                    mRenderer.release();
+                }
+                mRenderer = Utils.createRenderer(renderer, mWideGamut);
+                mResolvedRenderer = renderer;
+                mRendererWideGamut = mWideGamut;
+            }
+            long start = System.nanoTime();
             switch (mOrientation) {
                 case VERTICAL: default:
-                    luar = new LinearGradient(0, getMeasuredHeight(),
-                            0, 0,
-                            mColors, null, Shader.TileMode.CLAMP);
-                    mColorPaint.setShader(luar);
-                    canvas.drawRect(strokeWidth * 2, strokeWidth * 3,
+                    mRenderer.drawHue(canvas, strokeWidth * 2, strokeWidth * 3,
                             getMeasuredWidth() - strokeWidth * 2,
                             getMeasuredHeight() - strokeWidth * 3,
-                            mColorPaint);
+                            mOrientation);
                     break;
                 case HORIZONTAL:
-                    luar = new LinearGradient(getMeasuredWidth(), 0,
-                            0, 0,
-                            mColors, null, Shader.TileMode.CLAMP);
-                    mColorPaint.setShader(luar);
-                    canvas.drawRect(strokeWidth * 3, strokeWidth * 2,
+                    mRenderer.drawHue(canvas, strokeWidth * 3, strokeWidth * 2,
                             getMeasuredWidth() - strokeWidth * 3,
                             getMeasuredHeight() - strokeWidth * 2,
-                            mColorPaint);
+                            mOrientation);
                     break;
             }
+            if (mOnRenderListener != null) {
+                mOnRenderListener.onRender(renderer, System.nanoTime() - start);
+            }
 
             if (mCursorVisible) {
 
                 mCursorPaint.setStrokeWidth(strokeWidth);
                 mCursorPaint.setColor(Color.WHITE);
 
-                RectF rectF;
+                float position = mPosition;
+                boolean predicting = mTouchPredictor != null && mDragging &&
+                        mTouchPredictor.isPredicting(SystemClock.uptimeMillis());
                 switch (mOrientation) {
                     case VERTICAL: default:
-                        rectF = new RectF(strokeWidth / 2,
-                                mPosition - strokeWidth * 2, getMeasuredWidth() - strokeWidth / 2,
-                                mPosition + strokeWidth * 2);
+                        if (predicting) {
+                            position = MathUtils.clamp(mTouchPredictor.getPredictedY(),
+                                    strokeWidth * 3, getMeasuredHeight() - strokeWidth * 3);
+                        }
+                        mCursorRect.set(strokeWidth / 2,
+                                position - strokeWidth * 2, getMeasuredWidth() - strokeWidth / 2,
+                                position + strokeWidth * 2);
                         break;
                     case HORIZONTAL:
-                        rectF = new RectF(mPosition - strokeWidth * 2, strokeWidth / 2,
-                                mPosition + strokeWidth * 2,
+                        if (predicting) {
+                            position = MathUtils.clamp(mTouchPredictor.getPredictedX(),
+                                    strokeWidth * 3, getMeasuredWidth() - strokeWidth * 3);
+                        }
+                        mCursorRect.set(position - strokeWidth * 2, strokeWidth / 2,
+                                position + strokeWidth * 2,
                                 getMeasuredHeight() - strokeWidth / 2);
                         break;
                 }
 
-                canvas.drawRoundRect(rectF, mCursorRadius, mCursorRadius, mCursorPaint);
+                canvas.drawRoundRect(mCursorRect, mCursorRadius, mCursorRadius, mCursorPaint);
 
                 mCursorPaint.setColor(Color.BLACK);
                 mCursorPaint.setStrokeWidth(strokeWidth / 2);
 
-                canvas.drawRoundRect(rectF, mCursorRadius, mCursorRadius, mCursorPaint);
+                canvas.drawRoundRect(mCursorRect, mCursorRadius, mCursorRadius, mCursorPaint);
 
             }
 
         }
 
+        public void setRenderer(int renderer) {
+            mRendererType = renderer;
+            invalidate();
+        }
+
+        public int getRenderer() {
+            return mRendererType;
+        }
+
+        public void setOnRenderListener(Renderer.OnRenderListener listener) {
+            mOnRenderListener = listener;
+        }
+
+        public void setWideGamut(boolean wideGamut) {
+            mWideGamut = wideGamut;
+            invalidate();
+        }
+
+        public void setTouchPredictor(TouchPredictor touchPredictor) {
+            mTouchPredictor = touchPredictor;
+            invalidate();
+        }
+
+        public TouchPredictor getTouchPredictor() {
+            return mTouchPredictor;
+        }
+
+        @Override
+        protected void onDetachedFromWindow() {
+            super.onDetachedFromWindow();
+            if (mRenderer != null) {
+                mRenderer.release();
+                mRenderer = null;
+            }
+        }
+
         public void setHue(float hue) {
             changeHue(hue);
             mPosition = getPositionFromHue(hue);
@@ -800,9 +1868,22 @@ public class RectColorPicker extends LinearLayout {
                                     strokeWidth * 3, getMeasuredWidth() - strokeWidth * 3);
                             break;
                     }
+                    mDragging = event.getAction() != MotionEvent.ACTION_UP;
+                    if (mTouchPredictor != null) {
+                        mTouchPredictor.addMotionEvent(event);
+                        removeCallbacks(mPredictionExpiry);
+                        if (mDragging) {
+                            postDelayed(mPredictionExpiry, TouchPredictor.STALE_TIMEOUT + 1);
+                        }
+                    }
                     changeHue(getPositionHue(mPosition));
                     invalidate();
                     break;
+                case MotionEvent.ACTION_CANCEL:
+                    mDragging = false;
+                    removeCallbacks(mPredictionExpiry);
+                    invalidate();
+                    break;
             }
             return true;
         }
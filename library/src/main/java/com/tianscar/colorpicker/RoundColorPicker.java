@@ -0,0 +1,357 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RoundColorPicker extends View {
+
+    public interface OnColorPickedListener {
+        void onColorPicked(RoundColorPicker picker, int color);
+    }
+
+    private OnColorPickedListener mOnColorPickedListener;
+
+    public void setOnColorPickedListener(OnColorPickedListener listener) {
+        mOnColorPickedListener = listener;
+    }
+
+    public OnColorPickedListener getOnColorPickedListener() {
+        return mOnColorPickedListener;
+    }
+
+    public void detectColorPicked(int color) {
+        if (mOnColorPickedListener != null) {
+            mOnColorPickedListener.onColorPicked(this, color);
+        }
+    }
+
+    private static final int[] mColors;
+
+    static {
+        int colorCount = 12;
+        int colorAngleStep = 360 / colorCount;
+        mColors = new int[colorCount + 1];
+        for (int i = 0; i < mColors.length; i++) {
+            mColors[i] = PackedColor.HSVToColor(i * colorAngleStep % 360, 1, 1);
+        }
+    }
+
+    private final AtomicLong mColorState = new AtomicLong(PackedColor.pack(0xFF, 0, 1, 1));
+
+    private final AtomicBoolean mColorPickedPending = new AtomicBoolean();
+    private long mPickedColorState = -1;
+
+    private final Runnable mColorPickedDispatcher = new Runnable() {
+        @Override
+        public void run() {
+            mColorPickedPending.set(false);
+            long state = mColorState.get();
+            if (state != mPickedColorState) {
+                mPickedColorState = state;
+                detectColorPicked(PackedColor.toColor(state));
+            }
+        }
+    };
+
+    private void dispatchColorPicked() {
+        if (mColorPickedPending.compareAndSet(false, true)) {
+            postOnAnimation(mColorPickedDispatcher);
+        }
+        postInvalidateOnAnimation();
+    }
+
+    private final Paint mCursorPaint;
+    private boolean mCursorVisible;
+    private float mCursorWidth;
+
+    private final Paint mHuePaint;
+    private final Paint mSaturationPaint;
+    private final Paint mValuePaint;
+
+    private float mCenterX, mCenterY, mRadius;
+
+    private float mCursorHue = -1, mCursorSaturation = -1;
+    private float mCursorX, mCursorY;
+
+    public void setCursorWidth(float cursorWidth) {
+        mCursorWidth = cursorWidth;
+        updateWheel(getWidth(), getHeight());
+        invalidate();
+    }
+
+    public float getCursorWidth() {
+        return mCursorWidth;
+    }
+
+    public void setCursorVisible(boolean cursorVisible) {
+        mCursorVisible = cursorVisible;
+        invalidate();
+    }
+
+    public boolean isCursorVisible() {
+        return mCursorVisible;
+    }
+
+    public RoundColorPicker(Context context) {
+        this(context, null);
+    }
+
+    public RoundColorPicker(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public RoundColorPicker(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        mHuePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mSaturationPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mValuePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mValuePaint.setColor(Color.BLACK);
+        mCursorPaint = new Paint();
+        mCursorPaint.setDither(true);
+        mCursorPaint.setAntiAlias(true);
+        mCursorPaint.setStyle(Paint.Style.STROKE);
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.RoundColorPicker,
+                defStyleAttr, 0);
+        setCursorVisible(typedArray.getBoolean(R.styleable.RoundColorPicker_android_cursorVisible, true));
+        setCursorWidth(typedArray.getDimension(R.styleable.RoundColorPicker_cursorWidth,
+                getResources().getDimension(R.dimen.colorpicker_cursor_width_default)));
+        typedArray.recycle();
+        dispatchColorPicked();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        int widthSpecMode = MeasureSpec.getMode(widthMeasureSpec);
+        int heightSpecMode = MeasureSpec.getMode(heightMeasureSpec);
+        int widthSpecSize = MeasureSpec.getSize(widthMeasureSpec);
+        int heightSpecSize = MeasureSpec.getSize(heightMeasureSpec);
+        if (widthSpecMode == MeasureSpec.AT_MOST && heightSpecMode == MeasureSpec.AT_MOST) {
+            int size = Math.min(widthSpecSize, heightSpecSize);
+            setMeasuredDimension(size, size);
+        }
+        else if (widthSpecMode == MeasureSpec.AT_MOST) {
+            setMeasuredDimension(Math.min(widthSpecSize, heightSpecSize), heightSpecSize);
+        }
+        else if (heightSpecMode == MeasureSpec.AT_MOST) {
+            setMeasuredDimension(widthSpecSize, Math.min(widthSpecSize, heightSpecSize));
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateWheel(w, h);
+    }
+
+    private float safeCursorWidth() {
+        return Math.max(
+                getResources().getDimension(R.dimen.colorpicker_cursor_width_default),
+                mCursorWidth);
+    }
+
+    private void updateWheel(int width, int height) {
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+        float radius = Math.min(centerX, centerY) - safeCursorWidth() * 3;
+        if (radius <= 0) {
+            mRadius = 0;
+            return;
+        }
+        if (centerX == mCenterX && centerY == mCenterY && radius == mRadius) {
+            return;
+        }
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mRadius = radius;
+        mHuePaint.setShader(new SweepGradient(centerX, centerY, mColors, null));
+        mSaturationPaint.setShader(new RadialGradient(centerX, centerY, radius,
+                0xFFFFFFFF, 0x00FFFFFF, Shader.TileMode.CLAMP));
+        mCursorHue = -1;
+    }
+
+    private void updateCursor(float hue, float saturation) {
+        if (hue == mCursorHue && saturation == mCursorSaturation) {
+            return;
+        }
+        double angle = Math.toRadians(hue);
+        mCursorX = mCenterX + (float) Math.cos(angle) * mRadius * saturation;
+        mCursorY = mCenterY + (float) Math.sin(angle) * mRadius * saturation;
+        mCursorHue = hue;
+        mCursorSaturation = saturation;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mRadius <= 0) {
+            return;
+        }
+
+        long state = mColorState.get();
+
+        canvas.drawCircle(mCenterX, mCenterY, mRadius, mHuePaint);
+        canvas.drawCircle(mCenterX, mCenterY, mRadius, mSaturationPaint);
+        int valueAlpha = Math.round((1 - PackedColor.value(state)) * 255);
+        if (valueAlpha > 0) {
+            mValuePaint.setAlpha(valueAlpha);
+            canvas.drawCircle(mCenterX, mCenterY, mRadius, mValuePaint);
+        }
+
+        if (mCursorVisible) {
+            updateCursor(PackedColor.hue(state), PackedColor.saturation(state));
+            float strokeWidth = safeCursorWidth();
+            mCursorPaint.setColor(Color.WHITE);
+            mCursorPaint.setStrokeWidth(strokeWidth);
+            canvas.drawCircle(mCursorX, mCursorY, strokeWidth * 2, mCursorPaint);
+            mCursorPaint.setColor(Color.BLACK);
+            mCursorPaint.setStrokeWidth(strokeWidth / 2);
+            canvas.drawCircle(mCursorX, mCursorY, strokeWidth * 2, mCursorPaint);
+        }
+
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (hasOnClickListeners()) {
+            return super.onTouchEvent(event);
+        }
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_MOVE:
+            case MotionEvent.ACTION_UP:
+                if (mRadius <= 0) {
+                    break;
+                }
+                float dx = event.getX() - mCenterX;
+                float dy = event.getY() - mCenterY;
+                float distance = (float) Math.sqrt(dx * dx + dy * dy);
+                if (distance > mRadius) {
+                    dx = dx * mRadius / distance;
+                    dy = dy * mRadius / distance;
+                    distance = mRadius;
+                }
+                long prev, next;
+                do {
+                    prev = mColorState.get();
+                    next = PackedColor.withSaturation(PackedColor.withHue(prev,
+                            FastPolar.angle(dx, dy)), distance / mRadius);
+                } while (!mColorState.compareAndSet(prev, next));
+                mCursorX = mCenterX + dx;
+                mCursorY = mCenterY + dy;
+                mCursorHue = PackedColor.hue(next);
+                mCursorSaturation = PackedColor.saturation(next);
+                invalidate();
+                dispatchColorPicked();
+                break;
+        }
+        return true;
+    }
+
+    public void setColor(int color) {
+        mColorState.set(PackedColor.fromColor(color));
+        dispatchColorPicked();
+    }
+
+    public int getColor() {
+        return PackedColor.toColor(mColorState.get());
+    }
+
+    public long getPackedColor() {
+        return mColorState.get();
+    }
+
+    public int getColorAlpha() {
+        return PackedColor.alpha(mColorState.get());
+    }
+
+    public float getHue() {
+        return PackedColor.hue(mColorState.get());
+    }
+
+    public float getSaturation() {
+        return PackedColor.saturation(mColorState.get());
+    }
+
+    public float getValue() {
+        return PackedColor.value(mColorState.get());
+    }
+
+    public void setColorAlpha(int alpha) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withAlpha(prev, alpha);
+        } while (!mColorState.compareAndSet(prev, next));
+        dispatchColorPicked();
+    }
+
+    public void setHue(float hue) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withHue(prev, hue);
+        } while (!mColorState.compareAndSet(prev, next));
+        dispatchColorPicked();
+    }
+
+    public void setSaturation(float saturation) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withSaturation(prev, saturation);
+        } while (!mColorState.compareAndSet(prev, next));
+        dispatchColorPicked();
+    }
+
+    public void setValue(float value) {
+        long prev, next;
+        do {
+            prev = mColorState.get();
+            next = PackedColor.withValue(prev, value);
+        } while (!mColorState.compareAndSet(prev, next));
+        dispatchColorPicked();
+    }
+
+}
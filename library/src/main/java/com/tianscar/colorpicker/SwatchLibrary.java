@@ -0,0 +1,302 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import androidx.annotation.NonNull;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A read-only library of named colors in a compact binary format, usually memory-mapped with
+ * {@link #open(File)}. Only the header is read up front; lookups read the mapped sections
+ * directly and create no per-entry objects (except the String returned by {@link #getName(int)}).
+ *
+ * <p>Layout (big-endian): a 32 byte header (magic, version, entry count and the offsets of
+ * the five sections below), the entry colors, the entry names
+ * as (offset, length) pairs into the UTF-8 string pool, the entry indices sorted by name
+ * bytes, the entry indices sorted by color, and the string pool itself.
+ * {@link #write(OutputStream, String[], int[])} produces this format.</p>
+ */
+public final class SwatchLibrary {
+
+    private static final int MAGIC = 0x53574348;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer mBuffer;
+    private final int mCount;
+    private final int mColorsOffset;
+    private final int mNamesOffset;
+    private final int mNameIndexOffset;
+    private final int mColorIndexOffset;
+    private final int mStringsOffset;
+
+    private SwatchLibrary(ByteBuffer buffer) throws IOException {
+        mBuffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a swatch library");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported swatch library version " + buffer.getInt(4));
+        }
+        mCount = buffer.getInt(8);
+        mColorsOffset = buffer.getInt(12);
+        mNamesOffset = buffer.getInt(16);
+        mNameIndexOffset = buffer.getInt(20);
+        mColorIndexOffset = buffer.getInt(24);
+        mStringsOffset = buffer.getInt(28);
+        long count = mCount;
+        if (count < 0 ||
+                mColorsOffset < HEADER_SIZE || mColorsOffset + count * 4 > mNamesOffset ||
+                mNamesOffset + count * 8 > mNameIndexOffset ||
+                mNameIndexOffset + count * 4 > mColorIndexOffset ||
+                mColorIndexOffset + count * 4 > mStringsOffset ||
+                mStringsOffset > buffer.limit()) {
+            throw new IOException("Corrupted swatch library");
+        }
+    }
+
+    @NonNull
+    public static SwatchLibrary open(@NonNull File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            return new SwatchLibrary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Reads a library starting at the buffer's current position, whatever its byte order.
+     * The buffer's own position, limit and order are left untouched.
+     */
+    @NonNull
+    public static SwatchLibrary wrap(@NonNull ByteBuffer buffer) throws IOException {
+        return new SwatchLibrary(buffer.slice().order(ByteOrder.BIG_ENDIAN));
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    public int getColor(int index) {
+        checkIndex(index);
+        return mBuffer.getInt(mColorsOffset + index * 4);
+    }
+
+    @NonNull
+    public String getName(int index) {
+        checkIndex(index);
+        int offset = mStringsOffset + mBuffer.getInt(mNamesOffset + index * 8);
+        byte[] bytes = new byte[mBuffer.getInt(mNamesOffset + index * 8 + 4)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = mBuffer.get(offset + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    public int indexOfName(@NonNull CharSequence name) {
+        int low = 0;
+        int high = mCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int index = mBuffer.getInt(mNameIndexOffset + mid * 4);
+            int comparison = compareName(index, name);
+            if (comparison < 0) {
+                low = mid + 1;
+            }
+            else if (comparison > 0) {
+                high = mid - 1;
+            }
+            else {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOfColor(int color) {
+        int low = 0;
+        int high = mCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int index = mBuffer.getInt(mColorIndexOffset + mid * 4);
+            int midColor = mBuffer.getInt(mColorsOffset + index * 4);
+            if (midColor < color) {
+                low = mid + 1;
+            }
+            else if (midColor > color) {
+                high = mid - 1;
+            }
+            else {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public void applyTo(@NonNull RectColorPicker picker, int index) {
+        picker.setColor(getColor(index));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mCount) {
+            throw new ArrayIndexOutOfBoundsException("size=" + mCount + "; index=" + index);
+        }
+    }
+
+    private int compareName(int index, CharSequence name) {
+        int offset = mStringsOffset + mBuffer.getInt(mNamesOffset + index * 8);
+        int end = offset + mBuffer.getInt(mNamesOffset + index * 8 + 4);
+        int i = 0;
+        while (offset < end && i < name.length()) {
+            int lead = mBuffer.get(offset) & 0xFF;
+            int codePoint;
+            int length;
+            if (lead < 0x80) {
+                codePoint = lead;
+                length = 1;
+            }
+            else if (lead < 0xE0) {
+                codePoint = lead & 0x1F;
+                length = 2;
+            }
+            else if (lead < 0xF0) {
+                codePoint = lead & 0x0F;
+                length = 3;
+            }
+            else {
+                codePoint = lead & 0x07;
+                length = 4;
+            }
+            for (int j = 1; j < length && offset + j < end; j++) {
+                codePoint = codePoint << 6 | (mBuffer.get(offset + j) & 0x3F);
+            }
+            int other = Character.codePointAt(name, i);
+            if (codePoint != other) {
+                return codePoint < other ? -1 : 1;
+            }
+            offset += length;
+            i += Character.charCount(other);
+        }
+        if (offset < end) {
+            return 1;
+        }
+        return i < name.length() ? -1 : 0;
+    }
+
+    public static void write(@NonNull OutputStream out, @NonNull String[] names,
+                             @NonNull int[] colors) throws IOException {
+        if (names.length != colors.length) {
+            throw new IllegalArgumentException("names and colors must have the same length");
+        }
+        final int count = names.length;
+        final byte[][] nameBytes = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            nameBytes[i] = names[i].getBytes(UTF_8);
+        }
+        Integer[] byName = new Integer[count];
+        Integer[] byColor = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            byName[i] = i;
+            byColor[i] = i;
+        }
+        Arrays.sort(byName, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                byte[] a = nameBytes[o1];
+                byte[] b = nameBytes[o2];
+                for (int i = 0; i < a.length && i < b.length; i++) {
+                    int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+                    if (difference != 0) {
+                        return difference;
+                    }
+                }
+                return a.length - b.length;
+            }
+        });
+        final int[] sortColors = colors.clone();
+        Arrays.sort(byColor, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                int a = sortColors[o1];
+                int b = sortColors[o2];
+                return a < b ? -1 : (a == b ? 0 : 1);
+            }
+        });
+
+        int colorsOffset = HEADER_SIZE;
+        int namesOffset = colorsOffset + count * 4;
+        int nameIndexOffset = namesOffset + count * 8;
+        int colorIndexOffset = nameIndexOffset + count * 4;
+        int stringsOffset = colorIndexOffset + count * 4;
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(count);
+        data.writeInt(colorsOffset);
+        data.writeInt(namesOffset);
+        data.writeInt(nameIndexOffset);
+        data.writeInt(colorIndexOffset);
+        data.writeInt(stringsOffset);
+        for (int color : sortColors) {
+            data.writeInt(color);
+        }
+        int stringOffset = 0;
+        for (byte[] bytes : nameBytes) {
+            data.writeInt(stringOffset);
+            data.writeInt(bytes.length);
+            stringOffset += bytes.length;
+        }
+        for (Integer index : byName) {
+            data.writeInt(index);
+        }
+        for (Integer index : byColor) {
+            data.writeInt(index);
+        }
+        for (byte[] bytes : nameBytes) {
+            data.write(bytes);
+        }
+        data.flush();
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Extrapolates a touch position a short time ahead from a least-squares velocity fit over the
+ * most recent samples. Pickers only use the prediction to draw their cursors; picked colors
+ * always come from the real samples.
+ */
+class TouchPredictor {
+
+    private static final int HISTORY_SIZE = 4;
+    private static final long HISTORY_WINDOW = 50;
+    static final long STALE_TIMEOUT = 40;
+
+    private final long[] mTimes = new long[HISTORY_SIZE];
+    private final float[] mXs = new float[HISTORY_SIZE];
+    private final float[] mYs = new float[HISTORY_SIZE];
+    private int mHead;
+    private int mCount;
+
+    private long mPredictionTime;
+    private float mPredictedX, mPredictedY;
+
+    TouchPredictor() {
+        this(16);
+    }
+
+    TouchPredictor(long predictionTimeMillis) {
+        mPredictionTime = predictionTimeMillis;
+    }
+
+    void setPredictionTime(long predictionTimeMillis) {
+        mPredictionTime = predictionTimeMillis;
+    }
+
+    long getPredictionTime() {
+        return mPredictionTime;
+    }
+
+    void reset() {
+        mCount = 0;
+        mHead = 0;
+    }
+
+    void addMotionEvent(@NonNull MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            reset();
+        }
+        for (int i = 0; i < event.getHistorySize(); i++) {
+            addSample(event.getHistoricalEventTime(i), event.getHistoricalX(i),
+                    event.getHistoricalY(i));
+        }
+        addSample(event.getEventTime(), event.getX(), event.getY());
+    }
+
+    void addSample(long timeMillis, float x, float y) {
+        if (mCount > 0 && timeMillis <= mTimes[(mHead + HISTORY_SIZE - 1) % HISTORY_SIZE]) {
+            mXs[(mHead + HISTORY_SIZE - 1) % HISTORY_SIZE] = x;
+            mYs[(mHead + HISTORY_SIZE - 1) % HISTORY_SIZE] = y;
+        }
+        else {
+            mTimes[mHead] = timeMillis;
+            mXs[mHead] = x;
+            mYs[mHead] = y;
+            mHead = (mHead + 1) % HISTORY_SIZE;
+            mCount = Math.min(mCount + 1, HISTORY_SIZE);
+        }
+        predict();
+    }
+
+    long getLastSampleTime() {
+        return mTimes[(mHead + HISTORY_SIZE - 1) % HISTORY_SIZE];
+    }
+
+    // Once the finger has been still for STALE_TIMEOUT the last prediction is no longer
+    // valid, since no new sample arrives to pull it back.
+    boolean isPredicting(long nowMillis) {
+        return mCount > 0 && nowMillis - getLastSampleTime() <= STALE_TIMEOUT;
+    }
+
+    float getPredictedX() {
+        return mPredictedX;
+    }
+
+    float getPredictedY() {
+        return mPredictedY;
+    }
+
+    private void predict() {
+        int last = (mHead + HISTORY_SIZE - 1) % HISTORY_SIZE;
+        mPredictedX = mXs[last];
+        mPredictedY = mYs[last];
+        if (mCount < 2 || mPredictionTime <= 0) {
+            return;
+        }
+        long lastTime = mTimes[last];
+        float sumT = 0, sumX = 0, sumY = 0, sumTT = 0, sumTX = 0, sumTY = 0;
+        int n = 0;
+        for (int i = 0; i < mCount; i++) {
+            int index = (last - i + HISTORY_SIZE) % HISTORY_SIZE;
+            long age = lastTime - mTimes[index];
+            if (age > HISTORY_WINDOW || (i == 1 && age > STALE_TIMEOUT)) {
+                break;
+            }
+            float t = -age;
+            sumT += t;
+            sumX += mXs[index];
+            sumY += mYs[index];
+            sumTT += t * t;
+            sumTX += t * mXs[index];
+            sumTY += t * mYs[index];
+            n++;
+        }
+        float denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator == 0) {
+            return;
+        }
+        float velocityX = (n * sumTX - sumT * sumX) / denominator;
+        float velocityY = (n * sumTY - sumT * sumY) / denominator;
+        mPredictedX += velocityX * mPredictionTime;
+        mPredictedY += velocityY * mPredictionTime;
+    }
+
+}
@@ -25,6 +25,8 @@
 
 package com.tianscar.colorpicker;
 
+import android.graphics.Canvas;
+import android.os.Build;
 import android.view.View;
 import android.widget.LinearLayout;
 
@@ -45,4 +47,41 @@ final class Utils {
         view.setLayoutParams(layoutParams);
     }
 
+    public static int resolveRenderer(int renderer, @NonNull Canvas canvas, boolean wideGamut) {
+        if (wideGamut) {
+            return RectColorPicker.RENDERER_BITMAP;
+        }
+        boolean pictureSupported = !canvas.isHardwareAccelerated() ||
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+        switch (renderer) {
+            case RectColorPicker.RENDERER_AUTO: default:
+                // Software canvases pay per pixel, so the cached bitmap wins. Hardware canvases
+                // only record the draw; replaying a Picture into the display list costs as
+                // much as recording the cached-shader rects directly, so take the plain path.
+                return canvas.isHardwareAccelerated() ? RectColorPicker.RENDERER_CANVAS :
+                        RectColorPicker.RENDERER_BITMAP;
+            case RectColorPicker.RENDERER_PICTURE:
+                return pictureSupported ? RectColorPicker.RENDERER_PICTURE :
+                        RectColorPicker.RENDERER_CANVAS;
+            case RectColorPicker.RENDERER_CANVAS:
+            case RectColorPicker.RENDERER_BITMAP:
+                return renderer;
+        }
+    }
+
+    @NonNull
+    public static Renderer createRenderer(int renderer, boolean wideGamut) {
+        if (wideGamut) {
+            return new WideGamutRenderer();
+        }
+        switch (renderer) {
+            case RectColorPicker.RENDERER_CANVAS: default:
+                return new CanvasRenderer();
+            case RectColorPicker.RENDERER_BITMAP:
+                return new BitmapRenderer();
+            case RectColorPicker.RENDERER_PICTURE:
+                return new PictureRenderer();
+        }
+    }
+
 }
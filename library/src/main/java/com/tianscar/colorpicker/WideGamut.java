@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.graphics.Color;
+import android.graphics.ColorSpace;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * Conversions for the wide-gamut mode, where the packed HSV coordinates address Display P3
+ * instead of sRGB. Display P3 shares the sRGB transfer curve and D65 white point, so a 3x3
+ * matrix between the linear spaces is all it takes. Nothing here allocates.
+ */
+final class WideGamut {
+
+    private WideGamut(){}
+
+    private static final float[] P3_TO_SRGB = {
+            1.2249402f, -0.2249402f, 0,
+            -0.0420570f, 1.0420570f, 0,
+            -0.0196376f, -0.0786360f, 1.0982736f
+    };
+
+    private static final float[] SRGB_TO_P3 = {
+            0.8224620f, 0.1775380f, 0,
+            0.0331942f, 0.9668058f, 0,
+            0.0170826f, 0.0723974f, 0.9105199f
+    };
+
+    // sRGB color -> packed P3 HSV
+    static long fromColor(int color) {
+        float r = ColorMath.SRGB_TO_LINEAR[Color.red(color)];
+        float g = ColorMath.SRGB_TO_LINEAR[Color.green(color)];
+        float b = ColorMath.SRGB_TO_LINEAR[Color.blue(color)];
+        float[] m = SRGB_TO_P3;
+        return fromRGB(Color.alpha(color),
+                encode(m[0] * r + m[1] * g + m[2] * b),
+                encode(m[3] * r + m[4] * g + m[5] * b),
+                encode(m[6] * r + m[7] * g + m[8] * b));
+    }
+
+    // packed P3 HSV -> sRGB color, clipped to the sRGB gamut
+    static int toColor(long packedColor) {
+        return PackedColor.alpha(packedColor) << 24 | 0x00FFFFFF & HSVToColor(
+                PackedColor.hue(packedColor), PackedColor.saturation(packedColor),
+                PackedColor.value(packedColor));
+    }
+
+    // P3 HSV -> opaque sRGB color, clipped to the sRGB gamut
+    static int HSVToColor(float hue, float saturation, float value) {
+        float r = decode(channel(5, hue, saturation, value));
+        float g = decode(channel(3, hue, saturation, value));
+        float b = decode(channel(1, hue, saturation, value));
+        float[] m = P3_TO_SRGB;
+        return 0xFF000000
+                | ColorMath.linearToSrgb(m[0] * r + m[1] * g + m[2] * b) << 16
+                | ColorMath.linearToSrgb(m[3] * r + m[4] * g + m[5] * b) << 8
+                | ColorMath.linearToSrgb(m[6] * r + m[7] * g + m[8] * b);
+    }
+
+    // packed sRGB HSV -> packed P3 HSV, without going through 8-bit channels
+    static long toP3(long packedColor) {
+        return convert(packedColor, SRGB_TO_P3);
+    }
+
+    // packed P3 HSV -> packed sRGB HSV, clipped to the sRGB gamut
+    static long toSRGB(long packedColor) {
+        return convert(packedColor, P3_TO_SRGB);
+    }
+
+    private static long convert(long packedColor, float[] m) {
+        float hue = PackedColor.hue(packedColor);
+        float saturation = PackedColor.saturation(packedColor);
+        float value = PackedColor.value(packedColor);
+        float r = decode(channel(5, hue, saturation, value));
+        float g = decode(channel(3, hue, saturation, value));
+        float b = decode(channel(1, hue, saturation, value));
+        return fromRGB(PackedColor.alpha(packedColor),
+                encode(m[0] * r + m[1] * g + m[2] * b),
+                encode(m[3] * r + m[4] * g + m[5] * b),
+                encode(m[6] * r + m[7] * g + m[8] * b));
+    }
+
+    // packed P3 HSV -> Display P3 color long, or an sRGB color long below API 26
+    static long toColorLong(long packedColor) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            float hue = PackedColor.hue(packedColor);
+            float saturation = PackedColor.saturation(packedColor);
+            float value = PackedColor.value(packedColor);
+            return Api26.pack(channel(5, hue, saturation, value),
+                    channel(3, hue, saturation, value), channel(1, hue, saturation, value),
+                    PackedColor.alpha(packedColor) / 255f);
+        }
+        return packSRGB(toColor(packedColor));
+    }
+
+    // any color long -> packed P3 HSV
+    static long fromColorLong(long color) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return Api26.fromColorLong(color);
+        }
+        return fromColor(unpackSRGB(color));
+    }
+
+    static long packSRGB(int color) {
+        return (color & 0xFFFFFFFFL) << 32;
+    }
+
+    static int unpackSRGB(long color) {
+        return (int) (color >>> 32);
+    }
+
+    private static long fromRGB(int alpha, float r, float g, float b) {
+        float max = Math.max(r, Math.max(g, b));
+        float min = Math.min(r, Math.min(g, b));
+        float delta = max - min;
+        float hue = 0;
+        float saturation = 0;
+        if (max > 0 && delta > 0) {
+            saturation = delta / max;
+            if (r == max) {
+                hue = (g - b) / delta;
+            }
+            else if (g == max) {
+                hue = 2 + (b - r) / delta;
+            }
+            else {
+                hue = 4 + (r - g) / delta;
+            }
+            hue *= 60;
+            if (hue < 0) {
+                hue += 360;
+            }
+        }
+        return PackedColor.pack(alpha, hue, saturation, max);
+    }
+
+    // n = 5, 3, 1 for red, green, blue
+    private static float channel(int n, float hue, float saturation, float value) {
+        float k = (n + hue / 60) % 6;
+        return value - value * saturation * Math.max(0, Math.min(k, Math.min(4 - k, 1)));
+    }
+
+    private static float decode(float encoded) {
+        if (encoded <= 0.04045f) {
+            return Math.max(0, encoded) / 12.92f;
+        }
+        return (float) Math.pow((Math.min(1, encoded) + 0.055) / 1.055, 2.4);
+    }
+
+    private static float encode(float linear) {
+        if (linear <= 0.0031308f) {
+            return Math.max(0, linear) * 12.92f;
+        }
+        return (float) (1.055 * Math.pow(Math.min(1, linear), 1 / 2.4) - 0.055);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.O)
+    private static final class Api26 {
+
+        private static final ColorSpace DISPLAY_P3 = ColorSpace.get(ColorSpace.Named.DISPLAY_P3);
+
+        static long pack(float r, float g, float b, float a) {
+            return Color.pack(r, g, b, a, DISPLAY_P3);
+        }
+
+        static long fromColorLong(long color) {
+            color = Color.convert(color, DISPLAY_P3);
+            return fromRGB(Math.round(Color.alpha(color) * 255),
+                    Color.red(color), Color.green(color), Color.blue(color));
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+/**
+ * Draws the plane and the hue strip for the wide-gamut mode, where each point stands for a
+ * Display P3 HSV coordinate. The colors are converted to sRGB per pixel on a coarse grid and
+ * stretched with bilinear filtering; the conversion is smooth, so the grid is not visible.
+ * A hue change refills the grid in place without allocating.
+ */
+final class WideGamutRenderer implements Renderer {
+
+    private static final int PLANE_SIZE = 64;
+    private static final int STRIP_SIZE = 256;
+
+    private final int[] mPixels = new int[PLANE_SIZE * PLANE_SIZE];
+    private final Matrix mMatrix = new Matrix();
+    private final Paint mPlanePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint mStripPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private Bitmap mPlane;
+    private float mPlaneHue = Float.NaN;
+    private float mPlaneLeft, mPlaneTop, mPlaneRight, mPlaneBottom;
+
+    private Bitmap mStrip;
+    private float mStripLeft, mStripTop, mStripRight, mStripBottom;
+    private int mStripOrientation;
+
+    @Override
+    public void drawSaturationValue(Canvas canvas, float left, float top, float right, float bottom,
+                                    float hue) {
+        if (right <= left || bottom <= top) {
+            return;
+        }
+        if (mPlane == null) {
+            mPlane = Bitmap.createBitmap(PLANE_SIZE, PLANE_SIZE, Bitmap.Config.ARGB_8888);
+            mPlanePaint.setShader(new BitmapShader(mPlane, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+            mPlaneHue = Float.NaN;
+            mPlaneLeft = Float.NaN;
+        }
+        if (mPlaneHue != hue) {
+            for (int y = 0; y < PLANE_SIZE; y++) {
+                float value = 1 - (float) y / (PLANE_SIZE - 1);
+                for (int x = 0; x < PLANE_SIZE; x++) {
+                    mPixels[y * PLANE_SIZE + x] = WideGamut.HSVToColor(hue,
+                            (float) x / (PLANE_SIZE - 1), value);
+                }
+            }
+            mPlane.setPixels(mPixels, 0, PLANE_SIZE, 0, 0, PLANE_SIZE, PLANE_SIZE);
+            mPlaneHue = hue;
+        }
+        if (mPlaneLeft != left || mPlaneTop != top || mPlaneRight != right || mPlaneBottom != bottom) {
+            // pixel centers land on the plane edges
+            float scaleX = (right - left) / (PLANE_SIZE - 1);
+            float scaleY = (bottom - top) / (PLANE_SIZE - 1);
+            mMatrix.setScale(scaleX, scaleY);
+            mMatrix.postTranslate(left - scaleX / 2, top - scaleY / 2);
+            mPlanePaint.getShader().setLocalMatrix(mMatrix);
+            mPlaneLeft = left;
+            mPlaneTop = top;
+            mPlaneRight = right;
+            mPlaneBottom = bottom;
+        }
+        canvas.drawRect(left, top, right, bottom, mPlanePaint);
+    }
+
+    @Override
+    public void drawHue(Canvas canvas, float left, float top, float right, float bottom,
+                        int orientation) {
+        if (right <= left || bottom <= top) {
+            return;
+        }
+        if (mStrip == null) {
+            for (int i = 0; i < STRIP_SIZE; i++) {
+                mPixels[i] = WideGamut.HSVToColor(360f * i / (STRIP_SIZE - 1), 1, 1);
+            }
+            mStrip = Bitmap.createBitmap(STRIP_SIZE, 1, Bitmap.Config.ARGB_8888);
+            mStrip.setPixels(mPixels, 0, STRIP_SIZE, 0, 0, STRIP_SIZE, 1);
+            mStripPaint.setShader(new BitmapShader(mStrip, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+            mStripLeft = Float.NaN;
+        }
+        if (mStripLeft != left || mStripTop != top || mStripRight != right ||
+                mStripBottom != bottom || mStripOrientation != orientation) {
+            // hue 0 at the top or left end, as in CanvasRenderer
+            switch (orientation) {
+                case RectColorPicker.HueRect.VERTICAL: default:
+                    float scaleY = (bottom - top) / (STRIP_SIZE - 1);
+                    mMatrix.setRotate(90);
+                    mMatrix.postScale(1, scaleY);
+                    mMatrix.postTranslate(0, top - scaleY / 2);
+                    break;
+                case RectColorPicker.HueRect.HORIZONTAL:
+                    float scaleX = (right - left) / (STRIP_SIZE - 1);
+                    mMatrix.setScale(scaleX, 1);
+                    mMatrix.postTranslate(left - scaleX / 2, 0);
+                    break;
+            }
+            mStripPaint.getShader().setLocalMatrix(mMatrix);
+            mStripLeft = left;
+            mStripTop = top;
+            mStripRight = right;
+            mStripBottom = bottom;
+            mStripOrientation = orientation;
+        }
+        canvas.drawRect(left, top, right, bottom, mStripPaint);
+    }
+
+    @Override
+    public void release() {
+        mPlanePaint.setShader(null);
+        mStripPaint.setShader(null);
+        if (mPlane != null) {
+            mPlane.recycle();
+            mPlane = null;
+        }
+        if (mStrip != null) {
+            mStrip.recycle();
+            mStrip = null;
+        }
+    }
+
+}
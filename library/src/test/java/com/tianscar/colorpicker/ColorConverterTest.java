@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.tianscar.colorpicker;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ColorConverterTest {
+
+    private static int[] randomColors(int count) {
+        Random random = new Random(26);
+        int[] colors = new int[count];
+        for (int i = 0; i < count; i++) {
+            colors[i] = random.nextInt();
+        }
+        return colors;
+    }
+
+    @Test
+    public void argbRoundTripKeepsAlpha() {
+        int[] colors = randomColors(1 << 16);
+        colors[0] = 0x00000000;
+        colors[1] = 0x80FFFFFF;
+        colors[2] = 0x7FC86432;
+        int count = colors.length;
+        int[] alpha = new int[count];
+        float[] hue = new float[count];
+        float[] saturation = new float[count];
+        float[] value = new float[count];
+        int[] result = new int[count];
+        ColorConverter.colorsToHSV(colors, alpha, hue, saturation, value);
+        ColorConverter.HSVToColors(alpha, hue, saturation, value, result);
+        assertArrayEquals(colors, result);
+    }
+
+    @Test
+    public void overloadsWithoutAlphaWriteOpaqueColors() {
+        int[] colors = randomColors(1024);
+        int count = colors.length;
+        float[] hue = new float[count];
+        float[] saturation = new float[count];
+        float[] value = new float[count];
+        int[] result = new int[count];
+        ColorConverter.colorsToHSV(colors, hue, saturation, value);
+        ColorConverter.HSVToColors(hue, saturation, value, result);
+        for (int i = 0; i < count; i++) {
+            assertEquals(colors[i] | 0xFF000000, result[i]);
+        }
+    }
+
+    @Test
+    public void alphaIsClampedAndOffsetLikeHSV() {
+        int[] alpha = { 0, -5, 300, 0x40 };
+        float[] hue = { 0, 0, 120, 240 };
+        float[] saturation = { 0, 1, 1, 1 };
+        float[] value = { 0, 1, 1, 1 };
+        int[] colors = new int[4];
+        ColorConverter.HSVToColors(alpha, hue, saturation, value, 1, colors, 0, 3);
+        assertArrayEquals(new int[] { 0x00FF0000, 0xFF00FF00, 0x400000FF, 0 }, colors);
+    }
+
+    @Test
+    public void parallelMatchesSerial() {
+        int[] colors = randomColors(ColorConverter.PARALLEL_THRESHOLD * 4 + 3);
+        int count = colors.length;
+        int[] alpha = new int[count];
+        float[] hue = new float[count];
+        float[] saturation = new float[count];
+        float[] value = new float[count];
+        int[] result = new int[count];
+        ColorConverter.parallelColorsToHSV(colors, alpha, hue, saturation, value);
+        ColorConverter.parallelHSVToColors(alpha, hue, saturation, value, result);
+        assertArrayEquals(colors, result);
+    }
+
+    @Test
+    public void bulkMatchesScalarLoop() {
+        int count = 1 << 16;
+        float[] hue = new float[count];
+        float[] saturation = new float[count];
+        float[] value = new float[count];
+        fillHSV(hue, saturation, value);
+        int[] bulk = new int[count];
+        ColorConverter.HSVToColors(hue, saturation, value, bulk);
+        for (int i = 0; i < count; i++) {
+            assertEquals(PackedColor.HSVToColor(hue[i], saturation[i], value[i]), bulk[i]);
+        }
+    }
+
+    // Not a pass/fail check: prints the bulk, parallel and scalar cost per color so regressions
+    // show up in the test log. The scalar loop is the per-color path the pickers use.
+    @Test
+    public void benchmarkBulkAgainstScalarLoop() {
+        int count = 1 << 18;
+        float[] hue = new float[count];
+        float[] saturation = new float[count];
+        float[] value = new float[count];
+        fillHSV(hue, saturation, value);
+        int[] bulk = new int[count];
+        int[] parallel = new int[count];
+        int[] scalar = new int[count];
+        long bulkNanos = Long.MAX_VALUE;
+        long parallelNanos = Long.MAX_VALUE;
+        long scalarNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 20; round++) {
+            long start = System.nanoTime();
+            ColorConverter.HSVToColors(hue, saturation, value, bulk);
+            bulkNanos = Math.min(bulkNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            ColorConverter.parallelHSVToColors(hue, saturation, value, parallel);
+            parallelNanos = Math.min(parallelNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                scalar[i] = PackedColor.HSVToColor(hue[i], saturation[i], value[i]);
+            }
+            scalarNanos = Math.min(scalarNanos, System.nanoTime() - start);
+        }
+        assertArrayEquals(scalar, bulk);
+        assertArrayEquals(scalar, parallel);
+        System.out.printf("HSVToColors: bulk %.2f, parallel %.2f, scalar %.2f ns/color%n",
+                (double) bulkNanos / count, (double) parallelNanos / count,
+                (double) scalarNanos / count);
+    }
+
+    private static void fillHSV(float[] hue, float[] saturation, float[] value) {
+        Random random = new Random(31);
+        for (int i = 0; i < hue.length; i++) {
+            hue[i] = random.nextFloat() * 360;
+            saturation[i] = random.nextFloat();
+            value[i] = random.nextFloat();
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.tianscar.colorpicker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ColorMathTest {
+
+    // Sharma, Wu & Dalal, "The CIEDE2000 Color-Difference Formula: Implementation Notes,
+    // Supplementary Test Data, and Mathematical Observations" (2005), table 1:
+    // L1, a1, b1, L2, a2, b2, expected difference.
+    private static final double[][] SHARMA_PAIRS = {
+            { 50.0000, 2.6772, -79.7751, 50.0000, 0.0000, -82.7485, 2.0425 },
+            { 50.0000, 3.1571, -77.2803, 50.0000, 0.0000, -82.7485, 2.8615 },
+            { 50.0000, 2.8361, -74.0200, 50.0000, 0.0000, -82.7485, 3.4412 },
+            { 50.0000, -1.3802, -84.2814, 50.0000, 0.0000, -82.7485, 1.0000 },
+            { 50.0000, -1.1848, -84.8006, 50.0000, 0.0000, -82.7485, 1.0000 },
+            { 50.0000, -0.9009, -85.5211, 50.0000, 0.0000, -82.7485, 1.0000 },
+            { 50.0000, 0.0000, 0.0000, 50.0000, -1.0000, 2.0000, 2.3669 },
+            { 50.0000, -1.0000, 2.0000, 50.0000, 0.0000, 0.0000, 2.3669 },
+            { 50.0000, 2.4900, -0.0010, 50.0000, -2.4900, 0.0009, 7.1792 },
+            { 50.0000, 2.4900, -0.0010, 50.0000, -2.4900, 0.0010, 7.1792 },
+            { 50.0000, 2.4900, -0.0010, 50.0000, -2.4900, 0.0011, 7.2195 },
+            { 50.0000, 2.4900, -0.0010, 50.0000, -2.4900, 0.0012, 7.2195 },
+            { 50.0000, -0.0010, 2.4900, 50.0000, 0.0009, -2.4900, 4.8045 },
+            { 50.0000, -0.0010, 2.4900, 50.0000, 0.0010, -2.4900, 4.8045 },
+            { 50.0000, -0.0010, 2.4900, 50.0000, 0.0011, -2.4900, 4.7461 },
+            { 50.0000, 2.5000, 0.0000, 50.0000, 0.0000, -2.5000, 4.3065 },
+            { 50.0000, 2.5000, 0.0000, 73.0000, 25.0000, -18.0000, 27.1492 },
+            { 50.0000, 2.5000, 0.0000, 61.0000, -5.0000, 29.0000, 22.8977 },
+            { 50.0000, 2.5000, 0.0000, 56.0000, -27.0000, -3.0000, 31.9030 },
+            { 50.0000, 2.5000, 0.0000, 58.0000, 24.0000, 15.0000, 19.4535 },
+            { 50.0000, 2.5000, 0.0000, 50.0000, 3.1736, 0.5854, 1.0000 },
+            { 50.0000, 2.5000, 0.0000, 50.0000, 3.2972, 0.0000, 1.0000 },
+            { 50.0000, 2.5000, 0.0000, 50.0000, 1.8634, 0.5757, 1.0000 },
+            { 50.0000, 2.5000, 0.0000, 50.0000, 3.2592, 0.3350, 1.0000 },
+            { 60.2574, -34.0099, 36.2677, 60.4626, -34.1751, 39.4387, 1.2644 },
+            { 63.0109, -31.0961, -5.8663, 62.8187, -29.7946, -4.0864, 1.2630 },
+            { 61.2901, 3.7196, -5.3901, 61.4292, 2.2480, -4.9620, 1.8731 },
+            { 35.0831, -44.1164, 3.7933, 35.0232, -40.0716, 1.5901, 1.8645 },
+            { 22.7233, 20.0904, -46.6940, 23.0331, 14.9730, -42.5619, 2.0373 },
+            { 36.4612, 47.8580, 18.3852, 36.2715, 50.5065, 21.2231, 1.4146 },
+            { 90.8027, -2.0831, 1.4410, 91.1528, -1.6435, 0.0447, 1.4441 },
+            { 90.9257, -0.5406, -0.9208, 88.6381, -0.8985, -0.7239, 1.5381 },
+            { 6.7747, -0.2908, -2.4247, 5.8714, -0.0985, -2.2286, 0.6377 },
+            { 2.0776, 0.0795, -1.1350, 0.9033, -0.0636, -0.5514, 0.9082 }
+    };
+
+    @Test
+    public void deltaE2000MatchesSharmaReferencePairs() {
+        for (int i = 0; i < SHARMA_PAIRS.length; i++) {
+            double[] pair = SHARMA_PAIRS[i];
+            float forward = ColorMath.deltaE2000((float) pair[0], (float) pair[1],
+                    (float) pair[2], (float) pair[3], (float) pair[4], (float) pair[5]);
+            float backward = ColorMath.deltaE2000((float) pair[3], (float) pair[4],
+                    (float) pair[5], (float) pair[0], (float) pair[1], (float) pair[2]);
+            assertEquals("pair " + (i + 1), pair[6], forward, 1e-4);
+            assertEquals("pair " + (i + 1) + " swapped", pair[6], backward, 1e-4);
+        }
+    }
+
+    @Test
+    public void blendCompositesInEncodedSRGB() {
+        assertEquals(0xFF808080, ColorMath.blend(0x7F000000, 0xFFFFFFFF));
+        assertEquals(0xFFC86432, ColorMath.blend(0xFFC86432, 0xFF000000));
+        assertEquals(0xFF000000, ColorMath.blend(0x00FFFFFF, 0xFF000000));
+    }
+
+    @Test
+    public void contrastMonitorMeasuresTheDisplayedComposite() {
+        ContrastMonitor monitor = new ContrastMonitor(0xFFFFFFFF, 0xFF000000);
+        monitor.update(0x7F000000);
+        // Half-transparent black shows as #808080 on white: 3.95:1, not the ~1.9:1 a
+        // linear-light mix would give. On black it is invisible.
+        assertEquals(3.95, monitor.getContrastRatio(0), 0.005);
+        assertEquals(1, monitor.getContrastRatio(1), 1e-6);
+        assertEquals(0, monitor.getColorDifference(1), 1e-4);
+        float[] lab = new float[6];
+        ColorMath.colorToLab(0xFF808080, lab, 0);
+        ColorMath.colorToLab(0xFFFFFFFF, lab, 3);
+        assertEquals(ColorMath.deltaE2000(lab[0], lab[1], lab[2], lab[3], lab[4], lab[5]),
+                monitor.getColorDifference(0), 1e-4);
+    }
+
+    @Test
+    public void contrastMonitorOpaqueColor() {
+        ContrastMonitor monitor = new ContrastMonitor(0xFFFFFFFF, 0xFF000000);
+        monitor.update(0xFF000000);
+        assertEquals(21, monitor.getContrastRatio(0), 1e-3);
+        assertEquals(1, monitor.getContrastRatio(1), 1e-6);
+        assertEquals(100, monitor.getColorDifference(0), 1e-2);
+    }
+
+}
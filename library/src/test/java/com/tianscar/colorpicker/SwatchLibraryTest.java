@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.tianscar.colorpicker;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+
+public class SwatchLibraryTest {
+
+    private static final int COUNT = 50000;
+
+    private static String nameOf(int index) {
+        switch (index % 4) {
+            case 0: return "swatch " + index;
+            case 1: return "\uD83C\uDFA8 palette " + index;
+            case 2: return "t\u00F6ne " + index + " \uD835\uDC00";
+            default: return "\u8272 " + index;
+        }
+    }
+
+    private static byte[] writeLibrary(String[] names, int[] colors) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SwatchLibrary.write(out, names, colors);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void roundTripsFiftyThousandEntries() throws IOException {
+        String[] names = new String[COUNT];
+        int[] colors = new int[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            names[i] = nameOf(i);
+            // An odd multiplier is a bijection on int, so every color is distinct.
+            colors[i] = i * 0x9E3779B1;
+        }
+        SwatchLibrary library = SwatchLibrary.wrap(ByteBuffer.wrap(writeLibrary(names, colors)));
+        assertEquals(COUNT, library.size());
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(names[i], library.getName(i));
+            assertEquals(colors[i], library.getColor(i));
+            assertEquals(names[i], i, library.indexOfName(names[i]));
+            assertEquals(i, library.indexOfColor(colors[i]));
+        }
+        assertEquals(-1, library.indexOfName("swatch"));
+        assertEquals(-1, library.indexOfName("swatch 0 "));
+        assertEquals(-1, library.indexOfName("\uD83C\uDFA8"));
+        assertEquals(-1, library.indexOfColor(COUNT * 0x9E3779B1));
+    }
+
+    @Test
+    public void wrapReadsFromThePositionInAnyByteOrder() throws IOException {
+        String[] names = { "red", "\uD83D\uDD34 red circle", "green", "blue" };
+        int[] colors = { 0xFFFF0000, 0x80FF0000, 0xFF00FF00, 0xFF0000FF };
+        byte[] bytes = writeLibrary(names, colors);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 7);
+        buffer.position(5);
+        buffer.put(bytes);
+        buffer.position(5);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        SwatchLibrary library = SwatchLibrary.wrap(buffer);
+        assertEquals(5, buffer.position());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+        assertEquals(names.length, library.size());
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(names[i], library.getName(i));
+            assertEquals(colors[i], library.getColor(i));
+            assertEquals(i, library.indexOfName(names[i]));
+            assertEquals(i, library.indexOfColor(colors[i]));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void wrapRejectsOtherData() throws IOException {
+        SwatchLibrary.wrap(ByteBuffer.allocate(64));
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Tianscar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package com.tianscar.colorpicker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TouchPredictorTest {
+
+    private long[] mTimes;
+    private float[] mXs, mYs;
+
+    @Before
+    public void loadTrace() throws IOException {
+        InputStream in = getClass().getResourceAsStream("/touch_trace_drag.csv");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        ArrayList<String[]> rows = new ArrayList<>();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    rows.add(line.split(","));
+                }
+            }
+        }
+        finally {
+            reader.close();
+        }
+        mTimes = new long[rows.size()];
+        mXs = new float[rows.size()];
+        mYs = new float[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            mTimes[i] = Long.parseLong(rows.get(i)[0]);
+            mXs[i] = Float.parseFloat(rows.get(i)[1]);
+            mYs[i] = Float.parseFloat(rows.get(i)[2]);
+        }
+    }
+
+    // Mean distance between the position drawn for each sample and the real position one
+    // prediction time later, interpolated from the trace. Without extrapolation the last
+    // sample is drawn, which is the error caused by that much latency.
+    private double replay(TouchPredictor predictor, boolean extrapolate) {
+        predictor.reset();
+        double totalError = 0;
+        int samples = 0;
+        int next = 0;
+        for (int i = 0; i < mTimes.length; i++) {
+            predictor.addSample(mTimes[i], mXs[i], mYs[i]);
+            long target = mTimes[i] + predictor.getPredictionTime();
+            while (next < mTimes.length && mTimes[next] < target) {
+                next++;
+            }
+            if (next >= mTimes.length || next == 0) {
+                continue;
+            }
+            float f = (float) (target - mTimes[next - 1]) / (mTimes[next] - mTimes[next - 1]);
+            float actualX = mXs[next - 1] + (mXs[next] - mXs[next - 1]) * f;
+            float actualY = mYs[next - 1] + (mYs[next] - mYs[next - 1]) * f;
+            float shownX = extrapolate ? predictor.getPredictedX() : mXs[i];
+            float shownY = extrapolate ? predictor.getPredictedY() : mYs[i];
+            totalError += Math.hypot(shownX - actualX, shownY - actualY);
+            samples++;
+        }
+        return totalError / samples;
+    }
+
+    @Test
+    public void extrapolationBeatsLaggedBaseline() {
+        TouchPredictor predictor = new TouchPredictor(16);
+        double predicted = replay(predictor, true);
+        double baseline = replay(predictor, false);
+        assertTrue("predicted " + predicted + " baseline " + baseline, predicted < baseline / 2);
+    }
+
+    @Test
+    public void zeroPredictionTimeDrawsLastSample() {
+        TouchPredictor predictor = new TouchPredictor(0);
+        assertEquals(replay(predictor, false), replay(predictor, true), 1e-6);
+    }
+
+    @Test
+    public void predictionExpiresWhenFingerStops() {
+        TouchPredictor predictor = new TouchPredictor(16);
+        for (int i = 0; i < 10; i++) {
+            predictor.addSample(mTimes[i], mXs[i], mYs[i]);
+        }
+        long last = predictor.getLastSampleTime();
+        assertTrue(predictor.isPredicting(last + TouchPredictor.STALE_TIMEOUT));
+        assertFalse(predictor.isPredicting(last + TouchPredictor.STALE_TIMEOUT + 1));
+    }
+
+    @Test
+    public void resumingAfterPauseDoesNotExtrapolateAcrossTheGap() {
+        TouchPredictor predictor = new TouchPredictor(16);
+        predictor.addSample(0, 0, 0);
+        predictor.addSample(8, 10, 0);
+        predictor.addSample(8 + TouchPredictor.STALE_TIMEOUT + 1, 20, 0);
+        assertEquals(20, predictor.getPredictedX(), 0);
+    }
+
+    @Test
+    public void emptyPredictorIsNotPredicting() {
+        assertFalse(new TouchPredictor().isPredicting(0));
+    }
+
+}